@@ -0,0 +1,87 @@
+package com.biervorrat.jmh;
+
+import com.biervorrat.config.BiervorratProperties;
+import com.biervorrat.hotkeys.BierHotKeyTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of feeding the hot-key tracker, on a skewed id stream and on a single hot id that
+ * every thread hits.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BierHotKeyTrackerBenchmark {
+
+    private static final int IDS = 1 << 16;
+    private static final int DISTINCT_IDS = 100_000;
+    private static final int THREADS = 4;
+    private static final Long HOT_ID = 4_242L;
+
+    private BierHotKeyTracker tracker;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tracker = new BierHotKeyTracker(new BiervorratProperties());
+    }
+
+    @State(Scope.Thread)
+    public static class SkewedIds {
+
+        private final Long[] ids = new Long[IDS];
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < IDS; i++) {
+                double skew = random.nextDouble();
+                ids[i] = (long) (DISTINCT_IDS * skew * skew * skew);
+            }
+        }
+
+        Long next() {
+            next = (next + 1) & (IDS - 1);
+            return ids[next];
+        }
+    }
+
+    @Benchmark
+    public void recordMutationSkewed(SkewedIds ids) {
+        tracker.recordMutation(ids.next());
+    }
+
+    @Benchmark
+    public void recordReadSkewed(SkewedIds ids) {
+        tracker.recordRead(ids.next());
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    public void recordMutationSkewedContended(SkewedIds ids) {
+        tracker.recordMutation(ids.next());
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    public void recordMutationHotIdContended() {
+        tracker.recordMutation(HOT_ID);
+    }
+}
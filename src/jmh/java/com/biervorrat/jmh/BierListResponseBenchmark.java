@@ -0,0 +1,88 @@
+package com.biervorrat.jmh;
+
+import com.biervorrat.BiervorratApplication;
+import com.biervorrat.cache.BierListResponseCache;
+import com.biervorrat.service.BierService;
+import com.biervorrat.utils.BierDataGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The unpaged list body built per request, query plus mapping plus serialization and optionally
+ * gzip, against the bytes held by {@link BierListResponseCache}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BierListResponseBenchmark {
+
+    private static final int ROWS = 5_000;
+
+    @Param({"false", "true"})
+    private boolean gzipped;
+
+    private ConfigurableApplicationContext context;
+    private BierService bierService;
+    private BierListResponseCache bierListResponseCache;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BiervorratApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--logging.level.root=WARN");
+        bierService = context.getBean(BierService.class);
+        bierListResponseCache = context.getBean(BierListResponseCache.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        new BierDataGenerator(context.getBean(JdbcTemplate.class)).generate(ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] serializedPerRequest() throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(bierService.listAll());
+        if (!gzipped) {
+            return json;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(json);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] cached() throws IOException {
+        BierListResponseCache.Snapshot snapshot = bierListResponseCache.current();
+        return gzipped ? snapshot.getGzipped() : snapshot.getJson();
+    }
+}
@@ -0,0 +1,50 @@
+package com.biervorrat.jmh;
+
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.entity.Bier;
+import com.biervorrat.enums.BierType;
+import com.biervorrat.mapper.BierMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BierMapperBenchmark {
+
+    private final BierMapper bierMapper = BierMapper.INSTANCE;
+
+    private Bier bier;
+    private BierDTO bierDTO;
+
+    @Setup
+    public void setUp() {
+        bierDTO = new BierDTO(1L, "Brahma", "Ambev", 50, 10, BierType.LAGER);
+        bier = bierMapper.toModel(bierDTO);
+        bier.setChangeSeq(1L);
+        bier.setFillRatio(0.2);
+    }
+
+    @Benchmark
+    public BierDTO toDTO() {
+        return bierMapper.toDTO(bier);
+    }
+
+    @Benchmark
+    public Bier toModel() {
+        return bierMapper.toModel(bierDTO);
+    }
+}
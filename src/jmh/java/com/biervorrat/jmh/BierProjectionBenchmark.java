@@ -0,0 +1,98 @@
+package com.biervorrat.jmh;
+
+import com.biervorrat.BiervorratApplication;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.mapper.BierMapper;
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.utils.BierDataGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Entity reads mapped afterwards against DTO projections in read-only transactions, for the full
+ * list and for a single lookup by name. Add {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+public class BierProjectionBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final String HOT_NAME = BierDataGenerator.nameOf(ROWS / 2);
+
+    private final BierMapper bierMapper = BierMapper.INSTANCE;
+
+    private ConfigurableApplicationContext context;
+    private BierRepository bierRepository;
+    private TransactionTemplate readWriteTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BiervorratApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--logging.level.root=WARN");
+        bierRepository = context.getBean(BierRepository.class);
+        new BierDataGenerator(context.getBean(JdbcTemplate.class)).generate(ROWS);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<BierDTO> listAllViaEntities() {
+        return readWriteTransaction.execute(status -> bierRepository.findAll()
+                .stream()
+                .map(bierMapper::toDTO)
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<BierDTO> listAllViaProjection() {
+        return readOnlyTransaction.execute(status -> bierRepository.findAllDTOs());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Optional<BierDTO> findByNameViaEntity() {
+        return readWriteTransaction.execute(status -> bierRepository.findByName(HOT_NAME).map(bierMapper::toDTO));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Optional<BierDTO> findByNameViaProjection() {
+        return readOnlyTransaction.execute(status -> bierRepository.findDTOByName(HOT_NAME));
+    }
+}
@@ -0,0 +1,137 @@
+package com.biervorrat.jmh;
+
+import com.biervorrat.BiervorratApplication;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.enums.BierType;
+import com.biervorrat.service.BierService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BierService hot paths against the embedded H2 database, with the application context booted once
+ * per fork. Stock stays far from both bounds, so increments and decrements never get rejected.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BierServiceBenchmark {
+
+    private static final int BIERS = 1_000;
+    private static final int MAX = 10_000_000;
+    private static final int THREADS = 8;
+
+    private ConfigurableApplicationContext context;
+    private BierService bierService;
+    private List<BierDTO> biers;
+    private BierDTO hotBier;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(BiervorratApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--logging.level.root=WARN");
+        bierService = context.getBean(BierService.class);
+        BierType[] types = BierType.values();
+        biers = new ArrayList<>(BIERS);
+        for (int i = 0; i < BIERS; i++) {
+            BierDTO bierDTO = new BierDTO(null, String.format("Bier-%05d", i), "Ambev", MAX, MAX / 2, types[i % types.length]);
+            biers.add(bierService.createBier(bierDTO));
+        }
+        hotBier = biers.get(BIERS / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class DistinctIds {
+
+        private int next;
+        private int stride;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams threadParams) {
+            next = threadParams.getThreadIndex();
+            stride = threadParams.getThreadCount();
+        }
+
+        Long next(List<BierDTO> biers) {
+            Long id = biers.get(next).getId();
+            next = (next + stride) % biers.size();
+            return id;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public BierDTO findByName() throws Exception {
+        return bierService.findByName(hotBier.getName());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<BierDTO> listAll() {
+        return bierService.listAll();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void incrementAndDecrement(Blackhole blackhole) throws Exception {
+        blackhole.consume(bierService.increment(hotBier.getId(), 1));
+        blackhole.consume(bierService.decrement(hotBier.getId(), 1));
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void incrementAndDecrementHotId(Blackhole blackhole) throws Exception {
+        blackhole.consume(bierService.increment(hotBier.getId(), 1));
+        blackhole.consume(bierService.decrement(hotBier.getId(), 1));
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void incrementAndDecrementDistinctIds(DistinctIds ids, Blackhole blackhole) throws Exception {
+        Long id = ids.next(biers);
+        blackhole.consume(bierService.increment(id, 1));
+        blackhole.consume(bierService.decrement(id, 1));
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public BierDTO findByNameContended() throws Exception {
+        return bierService.findByName(hotBier.getName());
+    }
+}
@@ -0,0 +1,77 @@
+package com.biervorrat.jmh;
+
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.enums.BierType;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes and parses a ten thousand item bier list in each wire format the API negotiates.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BierWireFormatBenchmark {
+
+    private static final int ITEMS = 10_000;
+    private static final TypeReference<List<BierDTO>> BIER_LIST = new TypeReference<>() {
+    };
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private List<BierDTO> biers;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        switch (format) {
+            case "cbor":
+                mapper = new ObjectMapper(new CBORFactory());
+                break;
+            case "smile":
+                mapper = new ObjectMapper(new SmileFactory());
+                break;
+            default:
+                mapper = new ObjectMapper();
+        }
+        BierType[] types = BierType.values();
+        biers = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            biers.add(new BierDTO((long) i + 1, String.format("Bier-%08d", i), "Brand-" + (i % 100), 500, i % 500, types[i % types.length]));
+        }
+        payload = mapper.writeValueAsBytes(biers);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(biers);
+    }
+
+    @Benchmark
+    public List<BierDTO> deserialize() throws IOException {
+        return mapper.readValue(payload, BIER_LIST);
+    }
+}
@@ -0,0 +1,63 @@
+package com.biervorrat.cache;
+
+import com.biervorrat.service.BierService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Holds the unpaged bier list already serialized to JSON, plus a gzipped copy. The snapshot is
+ * tagged with the table version it was built at and is rebuilt, then swapped in whole, by the
+ * first read after a change commits.
+ */
+@Component
+public class BierListResponseCache {
+
+    private final BierService bierService;
+    private final ObjectMapper objectMapper;
+    private volatile Snapshot snapshot;
+
+    public BierListResponseCache(BierService bierService, ObjectMapper objectMapper) {
+        this.bierService = bierService;
+        this.objectMapper = objectMapper;
+    }
+
+    public Snapshot current() throws IOException {
+        long version = bierService.listVersion();
+        Snapshot current = snapshot;
+        if (current != null && current.getVersion() >= version) {
+            return current;
+        }
+        return rebuild(version);
+    }
+
+    private synchronized Snapshot rebuild(long version) throws IOException {
+        Snapshot current = snapshot;
+        if (current != null && current.getVersion() >= version) {
+            return current;
+        }
+        Snapshot rebuilt = Snapshot.of(version, objectMapper.writeValueAsBytes(bierService.listAll()));
+        snapshot = rebuilt;
+        return rebuilt;
+    }
+
+    @Value
+    public static class Snapshot {
+
+        long version;
+        byte[] json;
+        byte[] gzipped;
+
+        public static Snapshot of(long version, byte[] json) throws IOException {
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+                gzip.write(json);
+            }
+            return new Snapshot(version, json, gzipped.toByteArray());
+        }
+    }
+}
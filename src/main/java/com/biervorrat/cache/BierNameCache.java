@@ -0,0 +1,76 @@
+package com.biervorrat.cache;
+
+import com.biervorrat.config.BiervorratProperties;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.event.BierChangeEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+@Component
+public class BierNameCache {
+
+    private static final String CACHE_NAME = "biers.by-name";
+
+    private final Cache<String, VersionedBierDTO> biersByName;
+    private final Map<Long, String> namesById = new ConcurrentHashMap<>();
+
+    public BierNameCache(BiervorratProperties properties, MeterRegistry meterRegistry) {
+        BiervorratProperties.NameCache nameCache = properties.getNameCache();
+        this.biersByName = Caffeine.newBuilder()
+                .maximumSize(nameCache.getMaximumSize())
+                .expireAfterWrite(nameCache.getTtl())
+                .evictionListener((String name, VersionedBierDTO bier, RemovalCause cause) ->
+                        namesById.remove(bier.getBier().getId(), name))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, biersByName, CACHE_NAME);
+    }
+
+    public VersionedBierDTO get(String name, Function<String, VersionedBierDTO> loader) {
+        return biersByName.get(name, key -> {
+            VersionedBierDTO bier = loader.apply(key);
+            if (bier != null) {
+                namesById.put(bier.getBier().getId(), key);
+            }
+            return bier;
+        });
+    }
+
+    public VersionedBierDTO getIfPresent(String name) {
+        return biersByName.getIfPresent(name);
+    }
+
+    public void evict(String name) {
+        biersByName.asMap().computeIfPresent(name, (key, bier) -> {
+            namesById.remove(bier.getBier().getId(), key);
+            return null;
+        });
+    }
+
+    public void evict(Long id) {
+        String name = namesById.get(id);
+        if (name != null) {
+            evict(name);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBierChange(BierChangeEvent event) {
+        BierDTO bier = event.getBier();
+        if (bier.getName() != null) {
+            evict(bier.getName());
+        } else {
+            evict(bier.getId());
+        }
+    }
+}
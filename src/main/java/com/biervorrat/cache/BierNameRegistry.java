@@ -0,0 +1,90 @@
+package com.biervorrat.cache;
+
+import com.biervorrat.config.BiervorratProperties;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.enums.BierChangeType;
+import com.biervorrat.event.BierChangeEvent;
+import com.biervorrat.repository.BierRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exact in-memory set of registered bier names, so duplicate checks and lookups of unknown names can
+ * be answered without a query. A name is held as pending from the moment its insert is issued until
+ * the transaction completes, and a delete only drops the id it removed, so the registry may briefly
+ * report a name that is gone but never misses one that is in the table. Until {@link #reload()} has
+ * run, and after {@link #invalidate()}, no name is reported as absent and callers query as before;
+ * writes that bypass the services (bulk SQL, manual fixes) should be followed by a reload.
+ */
+@Component
+public class BierNameRegistry {
+
+    private final BierRepository bierRepository;
+    private final boolean enabled;
+    private final Map<String, Long> registered = new ConcurrentHashMap<>();
+    private final Map<String, Integer> pending = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public BierNameRegistry(BierRepository bierRepository, BiervorratProperties properties) {
+        this.bierRepository = bierRepository;
+        this.enabled = properties.getNameRegistry().isEnabled();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    public synchronized void reload() {
+        loaded = false;
+        registered.clear();
+        bierRepository.findAllNames().forEach(bier -> registered.put(bier.getName(), bier.getId()));
+        loaded = true;
+    }
+
+    public void invalidate() {
+        loaded = false;
+    }
+
+    public boolean isDefinitelyAbsent(String name) {
+        return loaded && !pending.containsKey(name) && !registered.containsKey(name);
+    }
+
+    /**
+     * Registers a bier whose insert is part of the current transaction; it counts as present right
+     * away and stays registered only if the transaction commits.
+     */
+    public void register(String name, Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            registered.put(name, id);
+            return;
+        }
+        pending.merge(name, 1, Integer::sum);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    registered.put(name, id);
+                }
+                pending.computeIfPresent(name, (key, count) -> count > 1 ? count - 1 : null);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBierChange(BierChangeEvent event) {
+        BierDTO bier = event.getBier();
+        if (event.getType() == BierChangeType.DELETED && bier.getName() != null) {
+            registered.remove(bier.getName(), bier.getId());
+        }
+    }
+}
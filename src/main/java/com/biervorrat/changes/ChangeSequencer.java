@@ -0,0 +1,84 @@
+package com.biervorrat.changes;
+
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.repository.BierTombstoneRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out the change sequence stamped on biers and tombstones. Numbers taken by transactions that
+ * have not completed yet hold back {@link #highWaterMark()}, so a client that resumes from it can
+ * never skip a change that commits late. {@link #tableVersion()} moves only once a change is
+ * visible, which makes it safe to read before the data it tags. It counts completed transactions
+ * on top of a boot epoch, the start time in the high bits, so a restart never hands out a version
+ * that already tagged another state of the table.
+ */
+@Component
+public class ChangeSequencer {
+
+    private final BierRepository bierRepository;
+    private final BierTombstoneRepository bierTombstoneRepository;
+    private final NavigableSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    private static final int EPOCH_SHIFT = 20;
+
+    private final AtomicLong applied = new AtomicLong();
+    private long last;
+    private volatile long epoch;
+
+    public ChangeSequencer(BierRepository bierRepository, BierTombstoneRepository bierTombstoneRepository) {
+        this.bierRepository = bierRepository;
+        this.bierTombstoneRepository = bierTombstoneRepository;
+    }
+
+    @PostConstruct
+    public synchronized void init() {
+        last = Math.max(bierRepository.findMaxChangeSeq(), bierTombstoneRepository.findMaxChangeSeq());
+        epoch = Math.max(System.currentTimeMillis() << EPOCH_SHIFT, epoch + 1);
+        applied.updateAndGet(current -> Math.max(epoch, current + 1));
+    }
+
+    public synchronized long next() {
+        long changeSeq = ++last;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            inFlight.add(changeSeq);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    inFlight.remove(changeSeq);
+                    applied.incrementAndGet();
+                }
+            });
+        }
+        return changeSeq;
+    }
+
+    public synchronized long highWaterMark() {
+        return inFlight.isEmpty() ? last : inFlight.first() - 1;
+    }
+
+    /**
+     * Start of this boot's version range. It is above every version handed out by earlier boots, so
+     * versions counted from it cannot repeat one a client may still hold.
+     */
+    public long epoch() {
+        return epoch;
+    }
+
+    public long tableVersion() {
+        return applied.get();
+    }
+
+    /**
+     * Counts a change made outside a transaction once it is visible; transactional changes are
+     * counted when their transaction completes.
+     */
+    public void recordApplied() {
+        applied.incrementAndGet();
+    }
+}
@@ -0,0 +1,120 @@
+package com.biervorrat.config;
+
+import com.biervorrat.enums.StockEngineMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "biervorrat")
+public class BiervorratProperties {
+
+    private final BulkImport bulkImport = new BulkImport();
+
+    private final Pagination pagination = new Pagination();
+
+    private final NameCache nameCache = new NameCache();
+
+    private final NameRegistry nameRegistry = new NameRegistry();
+
+    private final Lookup lookup = new Lookup();
+
+    private final HotKeys hotKeys = new HotKeys();
+
+    private final Stock stock = new Stock();
+
+    private final ChangeStream changeStream = new ChangeStream();
+
+    @Data
+    public static class BulkImport {
+
+        private int chunkSize = 500;
+    }
+
+    @Data
+    public static class Pagination {
+
+        private int defaultLimit = 50;
+
+        private int maxLimit = 500;
+    }
+
+    @Data
+    public static class NameCache {
+
+        private long maximumSize = 10_000;
+
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class NameRegistry {
+
+        private boolean enabled = true;
+    }
+
+    @Data
+    public static class Lookup {
+
+        private int maxKeys = 100;
+    }
+
+    @Data
+    public static class HotKeys {
+
+        private boolean enabled = true;
+
+        private Duration window = Duration.ofMinutes(1);
+
+        private int buckets = 6;
+
+        private int topK = 10;
+
+        private int sketchWidth = 1024;
+
+        private int sketchDepth = 4;
+    }
+
+    @Data
+    public static class ChangeStream {
+
+        private int bufferSize = 256;
+
+        private int senderThreads = 4;
+
+        private Duration timeout = Duration.ofMinutes(30);
+
+        private Duration sendTimeout = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Stock {
+
+        private StockEngineMode mode = StockEngineMode.SYNC;
+
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+        private final Coalescing coalescing = new Coalescing();
+
+        private final Striping striping = new Striping();
+    }
+
+    @Data
+    public static class Striping {
+
+        private int stripes = Runtime.getRuntime().availableProcessors();
+
+        private int queueCapacity = 1024;
+    }
+
+    @Data
+    public static class Coalescing {
+
+        private Duration window = Duration.ofMillis(2);
+
+        private int maxBatchSize = 64;
+    }
+}
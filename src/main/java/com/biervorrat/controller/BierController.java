@@ -1,25 +1,66 @@
 package com.biervorrat.controller;
 
+import com.biervorrat.cache.BierListResponseCache;
+import com.biervorrat.config.BinaryFormatConfig;
+import com.biervorrat.dto.BierChangesDTO;
 import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.BierFieldsPageDTO;
+import com.biervorrat.dto.BierImportSummaryDTO;
+import com.biervorrat.dto.BierLookupRequestDTO;
+import com.biervorrat.dto.BierLookupResultDTO;
+import com.biervorrat.dto.BierPageDTO;
+import com.biervorrat.dto.BierStockSummaryDTO;
 import com.biervorrat.dto.QuantityDTO;
+import com.biervorrat.dto.StockAdjustmentRequestDTO;
+import com.biervorrat.dto.StockAdjustmentResultDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.enums.BierField;
+import com.biervorrat.enums.BierFileFormat;
+import com.biervorrat.enums.BierSortKey;
+import com.biervorrat.enums.BierType;
 import com.biervorrat.exception.BierAlreadyRegisteredException;
+import com.biervorrat.exception.BierLookupTooLargeException;
 import com.biervorrat.exception.BierNotFoundException;
 import com.biervorrat.exception.BierStockExceededException;
+import com.biervorrat.exception.BierVersionMismatchException;
+import com.biervorrat.exception.InvalidBierCursorException;
+import com.biervorrat.exception.InvalidBierFieldsException;
+import com.biervorrat.service.BierChangeStreamService;
+import com.biervorrat.service.BierExportService;
+import com.biervorrat.service.BierImportService;
 import com.biervorrat.service.BierService;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/biere")
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class BierController implements BierControllerDocs {
 
+    private static final String ANY_VERSION = "*";
+    private static final String GZIP = "gzip";
+
     private final BierService bierService;
+    private final BierImportService bierImportService;
+    private final BierExportService bierExportService;
+    private final BierChangeStreamService bierChangeStreamService;
+    private final BierListResponseCache bierListResponseCache;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -28,13 +69,119 @@ public class BierController implements BierControllerDocs {
     }
 
     @GetMapping("/{name}")
-    public BierDTO findByName(@PathVariable String name) throws BierNotFoundException {
-        return bierService.findByName(name);
+    public BierDTO findByName(@PathVariable String name, WebRequest request) throws BierNotFoundException {
+        VersionedBierDTO foundBier = bierService.findVersionedByName(name);
+        if (request.checkNotModified(BierETags.of(foundBier.getVersion()))) {
+            return null;
+        }
+        return foundBier.getBier();
+    }
+
+    @GetMapping(value = "/{name}", params = "fields")
+    public Map<String, Object> findFieldsByName(@PathVariable String name,
+                                                @RequestParam String fields,
+                                                WebRequest request) throws BierNotFoundException, InvalidBierFieldsException {
+        Set<BierField> selectedFields = BierField.parse(fields);
+        VersionedBierDTO foundBier = bierService.findVersionedByName(name, selectedFields);
+        if (request.checkNotModified(BierETags.of(foundBier.getVersion()))) {
+            return null;
+        }
+        return BierField.select(foundBier.getBier(), selectedFields);
     }
 
     @GetMapping
-    public List<BierDTO> listBiers() {
-        return bierService.listAll();
+    public BierPageDTO listBiers(@RequestParam(defaultValue = "ID") BierSortKey sort,
+                                 @RequestParam(required = false) String cursor,
+                                 @RequestParam(required = false) BierType type,
+                                 @RequestParam(required = false) String brand,
+                                 @RequestParam(required = false) Integer limit,
+                                 WebRequest request) throws InvalidBierCursorException {
+        if (request.checkNotModified(BierETags.of(bierService.listVersion()))) {
+            return null;
+        }
+        return bierService.listPage(sort, cursor, type, brand, limit);
+    }
+
+    @GetMapping(params = {"fields", "unpaged!=true"})
+    public BierFieldsPageDTO listBierFields(@RequestParam(defaultValue = "ID") BierSortKey sort,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) BierType type,
+                                            @RequestParam(required = false) String brand,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam String fields,
+                                            WebRequest request) throws InvalidBierCursorException, InvalidBierFieldsException {
+        Set<BierField> selectedFields = BierField.parse(fields);
+        if (request.checkNotModified(BierETags.of(bierService.listVersion()))) {
+            return null;
+        }
+        return bierService.listPage(sort, cursor, type, brand, limit, selectedFields);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long id,
+                                    @RequestParam(required = false) BierType type,
+                                    @RequestParam(required = false) String brand) {
+        return bierChangeStreamService.subscribe(id, type, brand);
+    }
+
+    @GetMapping("/low-stock")
+    public List<BierDTO> listLowStock(@RequestParam(required = false) Double threshold,
+                                      @RequestParam(required = false) Integer limit) {
+        return bierService.listLowStock(threshold, limit);
+    }
+
+    @GetMapping("/changes")
+    public BierChangesDTO listChanges(@RequestParam(defaultValue = "0") long since,
+                                      @RequestParam(required = false) Integer limit) {
+        return bierService.listChanges(since, limit);
+    }
+
+    @PostMapping("/lookup")
+    public BierLookupResultDTO lookup(@RequestBody BierLookupRequestDTO bierLookupRequestDTO) throws BierLookupTooLargeException {
+        return bierService.lookup(bierLookupRequestDTO);
+    }
+
+    @GetMapping("/summary")
+    public BierStockSummaryDTO summary() {
+        return bierService.summary();
+    }
+
+    @PostMapping("/summary/rebuild")
+    public BierStockSummaryDTO rebuildSummary() {
+        return bierService.rebuildSummary();
+    }
+
+    @GetMapping(params = "unpaged=true")
+    public ResponseEntity<?> listAllBiers(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                          @RequestParam(required = false) String fields,
+                                          WebRequest request) throws IOException, InvalidBierFieldsException {
+        if (fields != null) {
+            throw new InvalidBierFieldsException();
+        }
+        long version = bierService.listVersion();
+        MediaType binaryType = binaryTypeOf(accept);
+        if (binaryType != null) {
+            if (request.checkNotModified(BierETags.of(version, binaryType.getSubtype()))) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .contentType(binaryType)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(bierService.listAll());
+        }
+        boolean gzip = acceptsGzip(acceptEncoding);
+        if (request.checkNotModified(gzip ? BierETags.of(version, GZIP) : BierETags.of(version))) {
+            return null;
+        }
+        BierListResponseCache.Snapshot snapshot = bierListResponseCache.current();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(snapshot.getGzipped());
+        }
+        return response.body(snapshot.getJson());
     }
 
     @DeleteMapping("/{id}")
@@ -44,12 +191,84 @@ public class BierController implements BierControllerDocs {
     }
 
     @PatchMapping("/{id}/increment")
-    public BierDTO increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BierNotFoundException, BierStockExceededException {
-        return bierService.increment(id, quantityDTO.getQuantity());
+    public CompletableFuture<ResponseEntity<BierDTO>> increment(@PathVariable Long id,
+                                                                @RequestBody @Valid QuantityDTO quantityDTO,
+                                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws BierNotFoundException, BierStockExceededException, BierVersionMismatchException {
+        if (ifMatch == null || ANY_VERSION.equals(ifMatch.trim())) {
+            return bierService.incrementAsync(id, quantityDTO.getQuantity()).thenApply(ResponseEntity::ok);
+        }
+        return CompletableFuture.completedFuture(withETag(bierService.incrementIfCurrent(id, quantityDTO.getQuantity(), BierETags.parse(id, ifMatch))));
     }
 
     @PatchMapping("/{id}/decrement")
-    public BierDTO decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BierNotFoundException, BierStockExceededException {
-        return bierService.decrement(id, quantityDTO.getQuantity());
+    public CompletableFuture<ResponseEntity<BierDTO>> decrement(@PathVariable Long id,
+                                                                @RequestBody @Valid QuantityDTO quantityDTO,
+                                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws BierNotFoundException, BierStockExceededException, BierVersionMismatchException {
+        if (ifMatch == null || ANY_VERSION.equals(ifMatch.trim())) {
+            return bierService.decrementAsync(id, quantityDTO.getQuantity()).thenApply(ResponseEntity::ok);
+        }
+        return CompletableFuture.completedFuture(withETag(bierService.decrementIfCurrent(id, quantityDTO.getQuantity(), BierETags.parse(id, ifMatch))));
+    }
+
+    @PatchMapping("/stock")
+    public List<StockAdjustmentResultDTO> adjustStock(@RequestBody @Valid StockAdjustmentRequestDTO stockAdjustmentRequestDTO) throws BierNotFoundException, BierStockExceededException {
+        return bierService.adjustStock(stockAdjustmentRequestDTO.getAdjustments(), stockAdjustmentRequestDTO.getMode());
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public BierImportSummaryDTO importNdjson(InputStream inputStream) throws IOException {
+        return bierImportService.importBiers(inputStream, BierFileFormat.NDJSON);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public BierImportSummaryDTO importCsv(InputStream inputStream) throws IOException {
+        return bierImportService.importBiers(inputStream, BierFileFormat.CSV);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBiers(@RequestParam(defaultValue = "NDJSON") BierFileFormat format) {
+        StreamingResponseBody body = outputStream -> bierExportService.exportBiers(outputStream, format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .body(body);
+    }
+
+    private static MediaType binaryTypeOf(String accept) {
+        if (accept == null) {
+            return null;
+        }
+        List<MediaType> acceptedTypes = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(acceptedTypes);
+        for (MediaType acceptedType : acceptedTypes) {
+            if (acceptedType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            if (acceptedType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return MediaType.APPLICATION_CBOR;
+            }
+            if (acceptedType.isCompatibleWith(BinaryFormatConfig.APPLICATION_SMILE)) {
+                return BinaryFormatConfig.APPLICATION_SMILE;
+            }
+        }
+        return null;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase(GZIP)) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static ResponseEntity<BierDTO> withETag(VersionedBierDTO versionedBier) {
+        return ResponseEntity.ok()
+                .eTag(BierETags.of(versionedBier.getVersion()))
+                .body(versionedBier.getBier());
     }
 }
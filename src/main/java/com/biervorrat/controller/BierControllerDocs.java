@@ -1,20 +1,44 @@
 package com.biervorrat.controller;
 
+import com.biervorrat.dto.BierChangesDTO;
 import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.BierFieldsPageDTO;
+import com.biervorrat.dto.BierImportSummaryDTO;
+import com.biervorrat.dto.BierLookupRequestDTO;
+import com.biervorrat.dto.BierLookupResultDTO;
+import com.biervorrat.dto.BierPageDTO;
+import com.biervorrat.dto.BierStockSummaryDTO;
 import com.biervorrat.dto.QuantityDTO;
+import com.biervorrat.dto.StockAdjustmentRequestDTO;
+import com.biervorrat.dto.StockAdjustmentResultDTO;
+import com.biervorrat.enums.BierFileFormat;
+import com.biervorrat.enums.BierSortKey;
+import com.biervorrat.enums.BierType;
 import com.biervorrat.exception.BierAlreadyRegisteredException;
+import com.biervorrat.exception.BierLookupTooLargeException;
 import com.biervorrat.exception.BierNotFoundException;
 import com.biervorrat.exception.BierStockExceededException;
+import com.biervorrat.exception.BierVersionMismatchException;
+import com.biervorrat.exception.InvalidBierCursorException;
+import com.biervorrat.exception.InvalidBierFieldsException;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Api("Manages bier stock")
 public interface BierControllerDocs {
@@ -29,15 +53,80 @@ public interface BierControllerDocs {
     @ApiOperation(value = "Returns bier found by a given name")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Success bier found in the system"),
+            @ApiResponse(code = 304, message = "Bier unchanged since the ETag given in If-None-Match"),
             @ApiResponse(code = 404, message = "Bier with given name not found.")
     })
-    BierDTO findByName(@PathVariable String name) throws BierNotFoundException;
+    BierDTO findByName(@PathVariable String name, WebRequest request) throws BierNotFoundException;
 
-    @ApiOperation(value = "Returns a list of all biers registered in the system")
+    @ApiOperation(value = "Returns only the requested fields (comma separated) of the bier found by a given name")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Requested fields of the bier"),
+            @ApiResponse(code = 304, message = "Bier unchanged since the ETag given in If-None-Match"),
+            @ApiResponse(code = 400, message = "Unknown field requested."),
+            @ApiResponse(code = 404, message = "Bier with given name not found.")
+    })
+    Map<String, Object> findFieldsByName(@PathVariable String name, String fields, WebRequest request) throws BierNotFoundException, InvalidBierFieldsException;
+
+    @ApiOperation(value = "Returns a page of biers with only the requested fields (comma separated), optionally filtered by type and brand")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Page of sparse biers and the cursor of the next page, if any"),
+            @ApiResponse(code = 304, message = "No bier changed since the ETag given in If-None-Match"),
+            @ApiResponse(code = 400, message = "Invalid page cursor or unknown field requested.")
+    })
+    BierFieldsPageDTO listBierFields(BierSortKey sort, String cursor, BierType type, String brand, Integer limit, String fields, WebRequest request) throws InvalidBierCursorException, InvalidBierFieldsException;
+
+    @ApiOperation(value = "Returns a page of biers, optionally filtered by type and brand")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Page of biers and the cursor of the next page, if any"),
+            @ApiResponse(code = 304, message = "No bier changed since the ETag given in If-None-Match"),
+            @ApiResponse(code = 400, message = "Invalid page cursor.")
+    })
+    BierPageDTO listBiers(BierSortKey sort, String cursor, BierType type, String brand, Integer limit, WebRequest request) throws InvalidBierCursorException;
+
+    @ApiOperation(value = "Streams created, deleted and quantity-changed biers as server-sent events, optionally filtered by id, type or brand")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Event stream of bier changes"),
+    })
+    SseEmitter streamChanges(Long id, BierType type, String brand);
+
+    @ApiOperation(value = "Returns the emptiest biers whose quantity/max is below the threshold, ordered by fill ratio")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Biers below the fill ratio threshold"),
+    })
+    List<BierDTO> listLowStock(Double threshold, Integer limit);
+
+    @ApiOperation(value = "Returns biers changed and ids deleted after the given change sequence, plus the new high-water mark")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Changes after the given sequence"),
+    })
+    BierChangesDTO listChanges(long since, Integer limit);
+
+    @ApiOperation(value = "Resolves a batch of names and ids in one round trip, returning found biers plus the missing keys")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Found biers and the names and ids that did not match"),
+            @ApiResponse(code = 400, message = "More keys than allowed per lookup")
+    })
+    BierLookupResultDTO lookup(@RequestBody BierLookupRequestDTO bierLookupRequestDTO) throws BierLookupTooLargeException;
+
+    @ApiOperation(value = "Returns total quantity, capacity and fill ratio per bier type and per brand")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock summary per type and brand"),
+    })
+    BierStockSummaryDTO summary();
+
+    @ApiOperation(value = "Recomputes the stock summary from all registered biers")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Rebuilt stock summary per type and brand"),
+    })
+    BierStockSummaryDTO rebuildSummary();
+
+    @ApiOperation(value = "Returns a list of all biers registered in the system (unpaged=true), gzipped when accepted")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "List of all biers registered in the system"),
+            @ApiResponse(code = 304, message = "No bier changed since the ETag given in If-None-Match"),
+            @ApiResponse(code = 400, message = "Fields requested on the unpaged list.")
     })
-    List<BierDTO> listBiers();
+    ResponseEntity<?> listAllBiers(String accept, String acceptEncoding, String fields, WebRequest request) throws IOException, InvalidBierFieldsException;
 
     @ApiOperation(value = "Delete a bier found by a given valid Id")
     @ApiResponses(value = {
@@ -51,7 +140,35 @@ public interface BierControllerDocs {
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Success bier decremented in stock"),
             @ApiResponse(code = 400, message = "Bier not successfully increment in stock"),
-            @ApiResponse(code = 404, message = "Bier with given id not found.")
+            @ApiResponse(code = 404, message = "Bier with given id not found."),
+            @ApiResponse(code = 412, message = "Bier changed since the ETag given in If-Match"),
+            @ApiResponse(code = 503, message = "Stock updates for the bier are saturated, retry later")
+    })
+    CompletableFuture<ResponseEntity<BierDTO>> decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO, String ifMatch) throws BierNotFoundException, BierStockExceededException, BierVersionMismatchException;
+
+    @ApiOperation(value = "Apply a batch of stock adjustments in a single transaction")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Result of each stock adjustment, in request order"),
+            @ApiResponse(code = 400, message = "Invalid request or, in ALL_OR_NOTHING mode, an adjustment exceeds the stock limits"),
+            @ApiResponse(code = 404, message = "In ALL_OR_NOTHING mode, a bier with given id not found.")
+    })
+    List<StockAdjustmentResultDTO> adjustStock(@RequestBody @Valid StockAdjustmentRequestDTO stockAdjustmentRequestDTO) throws BierNotFoundException, BierStockExceededException;
+
+    @ApiOperation(value = "Bulk import of biers streamed as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Summary of inserted, duplicate and invalid rows")
+    })
+    BierImportSummaryDTO importNdjson(InputStream inputStream) throws IOException;
+
+    @ApiOperation(value = "Bulk import of biers streamed as CSV with a header row")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Summary of inserted, duplicate and invalid rows")
+    })
+    BierImportSummaryDTO importCsv(InputStream inputStream) throws IOException;
+
+    @ApiOperation(value = "Streams the whole inventory as newline-delimited JSON or CSV")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "All biers registered in the system, ordered by id")
     })
-    BierDTO decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BierNotFoundException, BierStockExceededException;
+    ResponseEntity<StreamingResponseBody> exportBiers(BierFileFormat format);
 }
@@ -0,0 +1,29 @@
+package com.biervorrat.controller;
+
+import com.biervorrat.exception.BierVersionMismatchException;
+
+final class BierETags {
+
+    private BierETags() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String of(long version, String representation) {
+        return "\"" + version + "-" + representation + "\"";
+    }
+
+    static long parse(Long id, String eTag) throws BierVersionMismatchException {
+        String value = eTag.trim();
+        if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            try {
+                return Long.parseLong(value.substring(1, value.length() - 1));
+            } catch (NumberFormatException e) {
+                throw new BierVersionMismatchException(id, eTag);
+            }
+        }
+        throw new BierVersionMismatchException(id, eTag);
+    }
+}
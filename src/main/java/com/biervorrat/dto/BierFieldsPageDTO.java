@@ -0,0 +1,18 @@
+package com.biervorrat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BierFieldsPageDTO {
+
+    private List<Map<String, Object>> items;
+
+    private String next;
+}
@@ -0,0 +1,20 @@
+package com.biervorrat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BierHotKeysDTO {
+
+    private Duration window;
+
+    private List<HotKeyDTO> mostRead;
+
+    private List<HotKeyDTO> mostMutated;
+}
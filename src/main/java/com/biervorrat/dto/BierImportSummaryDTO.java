@@ -0,0 +1,17 @@
+package com.biervorrat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BierImportSummaryDTO {
+
+    private long inserted;
+
+    private long duplicates;
+
+    private long invalid;
+}
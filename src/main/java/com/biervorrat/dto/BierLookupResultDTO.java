@@ -0,0 +1,19 @@
+package com.biervorrat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BierLookupResultDTO {
+
+    private List<BierDTO> found;
+
+    private List<String> missingNames;
+
+    private List<Long> missingIds;
+}
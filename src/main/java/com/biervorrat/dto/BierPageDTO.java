@@ -0,0 +1,17 @@
+package com.biervorrat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BierPageDTO {
+
+    private List<BierDTO> items;
+
+    private String next;
+}
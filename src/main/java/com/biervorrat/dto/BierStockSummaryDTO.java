@@ -0,0 +1,17 @@
+package com.biervorrat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BierStockSummaryDTO {
+
+    private List<StockRollupDTO> byType;
+
+    private List<StockRollupDTO> byBrand;
+}
@@ -0,0 +1,20 @@
+package com.biervorrat.dto;
+
+import com.biervorrat.enums.StockAdjustmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockAdjustmentResultDTO {
+
+    private Long id;
+
+    private int delta;
+
+    private StockAdjustmentStatus status;
+
+    private Integer quantity;
+}
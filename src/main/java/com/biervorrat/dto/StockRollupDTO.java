@@ -0,0 +1,21 @@
+package com.biervorrat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockRollupDTO {
+
+    private String key;
+
+    private long biers;
+
+    private long quantity;
+
+    private long capacity;
+
+    private double fillRatio;
+}
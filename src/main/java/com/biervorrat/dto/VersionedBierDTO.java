@@ -0,0 +1,20 @@
+package com.biervorrat.dto;
+
+import com.biervorrat.enums.BierType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VersionedBierDTO {
+
+    private BierDTO bier;
+
+    private long version;
+
+    public VersionedBierDTO(Long id, String name, String brand, int max, int quantity, BierType type, long version) {
+        this(new BierDTO(id, name, brand, max, quantity, type), version);
+    }
+}
@@ -11,10 +11,19 @@ import javax.persistence.*;
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_bier_type_id", columnList = "type, id"),
+        @Index(name = "idx_bier_brand_id", columnList = "brand, id"),
+        @Index(name = "idx_bier_type_name_id", columnList = "type, name, id"),
+        @Index(name = "idx_bier_brand_name_id", columnList = "brand, name, id"),
+        @Index(name = "idx_bier_fill_ratio_id", columnList = "fillRatio, id"),
+        @Index(name = "idx_bier_change_seq", columnList = "changeSeq")
+})
 public class Bier {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bier_sequence")
+    @SequenceGenerator(name = "bier_sequence", sequenceName = "bier_sequence", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -33,4 +42,15 @@ public class Bier {
     @Column(nullable = false)
     private BierType type;
 
+    @Column(nullable = false)
+    private double fillRatio;
+
+    @Column(nullable = false)
+    private long changeSeq;
+
+    @PrePersist
+    @PreUpdate
+    void updateFillRatio() {
+        fillRatio = max == 0 ? 0 : (double) quantity / max;
+    }
 }
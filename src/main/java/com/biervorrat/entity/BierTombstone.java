@@ -0,0 +1,52 @@
+package com.biervorrat.entity;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+
+@Data
+@Entity
+@NoArgsConstructor
+@Table(indexes = @Index(name = "idx_bier_tombstone_change_seq", columnList = "changeSeq"))
+public class BierTombstone implements Persistable<Long> {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long changeSeq;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean persisted;
+
+    public BierTombstone(Long id, long changeSeq) {
+        this.id = id;
+        this.changeSeq = changeSeq;
+    }
+
+    /**
+     * A tombstone built for a delete is new, so saving it persists it without the select a merge of
+     * an assigned id would issue first.
+     */
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
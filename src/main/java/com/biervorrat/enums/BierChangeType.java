@@ -0,0 +1,14 @@
+package com.biervorrat.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum BierChangeType {
+    CREATED("created"),
+    QUANTITY_CHANGED("quantity changed"),
+    DELETED("deleted");
+
+    private final String description;
+}
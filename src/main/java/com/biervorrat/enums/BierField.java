@@ -0,0 +1,74 @@
+package com.biervorrat.enums;
+
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.exception.InvalidBierFieldsException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+@AllArgsConstructor
+public enum BierField {
+    ID("id", BierDTO::getId, (bier, value) -> bier.setId((Long) value)),
+    NAME("name", BierDTO::getName, (bier, value) -> bier.setName((String) value)),
+    BRAND("brand", BierDTO::getBrand, (bier, value) -> bier.setBrand((String) value)),
+    MAX("max", BierDTO::getMax, (bier, value) -> bier.setMax((Integer) value)),
+    QUANTITY("quantity", BierDTO::getQuantity, (bier, value) -> bier.setQuantity((Integer) value)),
+    TYPE("type", BierDTO::getType, (bier, value) -> bier.setType((BierType) value));
+
+    @Getter
+    private final String property;
+    private final Function<BierDTO, Object> reader;
+    private final BiConsumer<BierDTO, Object> writer;
+
+    public Object read(BierDTO bier) {
+        return reader.apply(bier);
+    }
+
+    public void write(BierDTO bier, Object value) {
+        writer.accept(bier, value);
+    }
+
+    public static Set<BierField> parse(String fields) throws InvalidBierFieldsException {
+        Set<BierField> parsed = EnumSet.noneOf(BierField.class);
+        List<String> unknown = new ArrayList<>();
+        for (String name : fields.split(",")) {
+            BierField field = fromProperty(name.trim());
+            if (field == null) {
+                unknown.add(name.trim());
+            } else {
+                parsed.add(field);
+            }
+        }
+        if (parsed.isEmpty() || !unknown.isEmpty()) {
+            throw new InvalidBierFieldsException(fields);
+        }
+        return parsed;
+    }
+
+    public static Map<String, Object> select(BierDTO bier, Set<BierField> fields) {
+        Map<String, Object> selected = new LinkedHashMap<>();
+        fields.forEach(field -> selected.put(field.getProperty(), field.read(bier)));
+        return selected;
+    }
+
+    public static BierField of(BierSortKey sortKey) {
+        return sortKey == BierSortKey.ID ? ID : NAME;
+    }
+
+    private static BierField fromProperty(String property) {
+        for (BierField field : values()) {
+            if (field.property.equalsIgnoreCase(property)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
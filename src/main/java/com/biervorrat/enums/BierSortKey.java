@@ -0,0 +1,13 @@
+package com.biervorrat.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum BierSortKey {
+    ID("id"),
+    NAME("name");
+
+    private final String property;
+}
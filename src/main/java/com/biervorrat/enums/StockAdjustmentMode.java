@@ -0,0 +1,13 @@
+package com.biervorrat.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockAdjustmentMode {
+    ALL_OR_NOTHING("all or nothing"),
+    BEST_EFFORT("best effort");
+
+    private final String description;
+}
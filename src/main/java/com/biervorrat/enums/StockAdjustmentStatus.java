@@ -0,0 +1,14 @@
+package com.biervorrat.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockAdjustmentStatus {
+    APPLIED("applied"),
+    NOT_FOUND("not found"),
+    STOCK_EXCEEDED("stock exceeded");
+
+    private final String description;
+}
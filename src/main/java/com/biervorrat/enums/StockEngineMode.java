@@ -0,0 +1,15 @@
+package com.biervorrat.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockEngineMode {
+    SYNC("synchronous database updates"),
+    COALESCING("synchronous database updates merged per bier within a short window"),
+    STRIPED("synchronous database updates routed to a single writer thread per bier"),
+    LEDGER("in-memory ledger with write-behind persistence");
+
+    private final String description;
+}
@@ -0,0 +1,43 @@
+package com.biervorrat.event;
+
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.enums.BierChangeType;
+import lombok.Value;
+
+@Value
+public class BierChangeEvent {
+
+    public static final long UNSEQUENCED = 0;
+
+    BierChangeType type;
+
+    BierDTO bier;
+
+    int quantityDelta;
+
+    long changeSeq;
+
+    public static BierChangeEvent created(BierDTO bier, long changeSeq) {
+        return new BierChangeEvent(BierChangeType.CREATED, bier, bier.getQuantity(), changeSeq);
+    }
+
+    public static BierChangeEvent deleted(BierDTO bier, long changeSeq) {
+        return new BierChangeEvent(BierChangeType.DELETED, bier, -bier.getQuantity(), changeSeq);
+    }
+
+    public static BierChangeEvent quantityChanged(BierDTO bier, int quantityDelta, long changeSeq) {
+        return new BierChangeEvent(BierChangeType.QUANTITY_CHANGED, bier, quantityDelta, changeSeq);
+    }
+
+    /**
+     * A change applied in memory ahead of the biers table, which has no change sequence until it is
+     * written.
+     */
+    public static BierChangeEvent quantityChanged(BierDTO bier, int quantityDelta) {
+        return quantityChanged(bier, quantityDelta, UNSEQUENCED);
+    }
+
+    public boolean isSequenced() {
+        return changeSeq != UNSEQUENCED;
+    }
+}
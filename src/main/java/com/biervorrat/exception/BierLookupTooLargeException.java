@@ -0,0 +1,11 @@
+package com.biervorrat.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BierLookupTooLargeException extends Exception {
+    public BierLookupTooLargeException(int keys, int maxKeys) {
+        super(String.format("Lookup of %s keys exceeds the limit of %s keys per request.", keys, maxKeys));
+    }
+}
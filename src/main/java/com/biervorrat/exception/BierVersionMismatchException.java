@@ -0,0 +1,16 @@
+package com.biervorrat.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class BierVersionMismatchException extends Exception {
+
+    public BierVersionMismatchException(Long id, long expectedVersion) {
+        super(String.format("Bier with ID %s was modified since version %s", id, expectedVersion));
+    }
+
+    public BierVersionMismatchException(Long id, String eTag) {
+        super(String.format("Bier with ID %s does not match %s", id, eTag));
+    }
+}
@@ -0,0 +1,11 @@
+package com.biervorrat.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBierCursorException extends Exception {
+    public InvalidBierCursorException(String cursor) {
+        super(String.format("Cursor %s is not a valid bier page cursor.", cursor));
+    }
+}
@@ -0,0 +1,15 @@
+package com.biervorrat.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBierFieldsException extends Exception {
+    public InvalidBierFieldsException(String fields) {
+        super(String.format("Fields %s are not valid, allowed fields are id, name, brand, max, quantity and type.", fields));
+    }
+
+    public InvalidBierFieldsException() {
+        super("Fields cannot be selected on the unpaged list, select them on the paged list instead.");
+    }
+}
@@ -0,0 +1,11 @@
+package com.biervorrat.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class StockStripeSaturatedException extends Exception {
+    public StockStripeSaturatedException(Long id) {
+        super(String.format("Stock updates for bier with ID %s are saturated, please retry later", id));
+    }
+}
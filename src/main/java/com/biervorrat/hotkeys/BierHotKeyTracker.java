@@ -0,0 +1,74 @@
+package com.biervorrat.hotkeys;
+
+import com.biervorrat.config.BiervorratProperties;
+import com.biervorrat.dto.BierHotKeysDTO;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Most-read and most-mutated bier ids over a sliding window, estimated in constant memory so a hot
+ * keg shows up without tracking every id.
+ */
+@Component
+public class BierHotKeyTracker {
+
+    private final boolean enabled;
+    private final Duration window;
+    private final int buckets;
+    private final WindowedTopK reads;
+    private final WindowedTopK mutations;
+    private final ScheduledExecutorService rotator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hot-key-rotator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BierHotKeyTracker(BiervorratProperties properties) {
+        BiervorratProperties.HotKeys hotKeys = properties.getHotKeys();
+        this.enabled = hotKeys.isEnabled();
+        this.window = hotKeys.getWindow();
+        this.buckets = hotKeys.getBuckets();
+        this.reads = new WindowedTopK(buckets, hotKeys.getSketchWidth(), hotKeys.getSketchDepth(), hotKeys.getTopK());
+        this.mutations = new WindowedTopK(buckets, hotKeys.getSketchWidth(), hotKeys.getSketchDepth(), hotKeys.getTopK());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            long intervalMillis = window.toMillis() / buckets;
+            rotator.scheduleAtFixedRate(this::rotate, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        rotator.shutdownNow();
+    }
+
+    public void recordRead(Long id) {
+        if (enabled && id != null) {
+            reads.add(id);
+        }
+    }
+
+    public void recordMutation(Long id) {
+        if (enabled && id != null) {
+            mutations.add(id);
+        }
+    }
+
+    public void rotate() {
+        reads.rotate();
+        mutations.rotate();
+    }
+
+    public BierHotKeysDTO snapshot() {
+        return new BierHotKeysDTO(window, reads.top(), mutations.top());
+    }
+}
@@ -0,0 +1,22 @@
+package com.biervorrat.hotkeys;
+
+import com.biervorrat.dto.BierHotKeysDTO;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "hotbiers")
+public class BierHotKeysEndpoint {
+
+    private final BierHotKeyTracker bierHotKeyTracker;
+
+    public BierHotKeysEndpoint(BierHotKeyTracker bierHotKeyTracker) {
+        this.bierHotKeyTracker = bierHotKeyTracker;
+    }
+
+    @ReadOperation
+    public BierHotKeysDTO hotBiers() {
+        return bierHotKeyTracker.snapshot();
+    }
+}
@@ -0,0 +1,127 @@
+package com.biervorrat.hotkeys;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch over bier ids that also remembers up to {@code k} candidate heavy hitters. The
+ * hot path is {@code depth} opaque read-increment-writes plus a scan of the candidate array; the
+ * candidate set is only locked when a key's estimate beats the weakest candidate. Increments racing
+ * on the same cell may be lost, which undercounts slightly under contention but keeps the hot
+ * path free of atomic read-modify-writes.
+ */
+final class TopKSketch {
+
+    private static final long[] NO_CANDIDATES = new long[0];
+
+    private final int width;
+    private final int depth;
+    private final int k;
+    private final AtomicLongArray counts;
+    private volatile long[] candidates = NO_CANDIDATES;
+    private volatile long admissionThreshold;
+
+    TopKSketch(int width, int depth, int k) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Sketch width must be a power of two: " + width);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.k = k;
+        this.counts = new AtomicLongArray(width * depth);
+    }
+
+    void add(long id) {
+        long hash = mix(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * width + ((h1 + row * h2) & (width - 1));
+            long count = counts.getOpaque(index) + 1;
+            counts.setOpaque(index, count);
+            estimate = Math.min(estimate, count);
+        }
+        if (estimate > admissionThreshold && !contains(candidates, id)) {
+            admit(id, estimate);
+        }
+    }
+
+    long estimate(long id) {
+        long hash = mix(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts.get(row * width + ((h1 + row * h2) & (width - 1))));
+        }
+        return estimate;
+    }
+
+    long[] candidates() {
+        return candidates;
+    }
+
+    synchronized void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        candidates = NO_CANDIDATES;
+        admissionThreshold = 0;
+    }
+
+    private synchronized void admit(long id, long estimate) {
+        long[] current = candidates;
+        if (contains(current, id)) {
+            return;
+        }
+        if (current.length < k) {
+            long[] admitted = Arrays.copyOf(current, current.length + 1);
+            admitted[current.length] = id;
+            candidates = admitted;
+            admissionThreshold = admitted.length < k ? 0 : weakestEstimate(admitted);
+            return;
+        }
+        int weakest = 0;
+        long weakestEstimate = Long.MAX_VALUE;
+        for (int i = 0; i < current.length; i++) {
+            long candidateEstimate = estimate(current[i]);
+            if (candidateEstimate < weakestEstimate) {
+                weakest = i;
+                weakestEstimate = candidateEstimate;
+            }
+        }
+        if (estimate > weakestEstimate) {
+            long[] admitted = current.clone();
+            admitted[weakest] = id;
+            candidates = admitted;
+            admissionThreshold = weakestEstimate(admitted);
+        } else {
+            admissionThreshold = weakestEstimate;
+        }
+    }
+
+    private long weakestEstimate(long[] ids) {
+        long weakestEstimate = Long.MAX_VALUE;
+        for (long candidate : ids) {
+            weakestEstimate = Math.min(weakestEstimate, estimate(candidate));
+        }
+        return weakestEstimate;
+    }
+
+    private static boolean contains(long[] ids, long id) {
+        for (long candidate : ids) {
+            if (candidate == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long mix(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 32;
+        hash *= 0xD6E8FEB86659FD93L;
+        return hash ^ (hash >>> 32);
+    }
+}
@@ -0,0 +1,62 @@
+package com.biervorrat.hotkeys;
+
+import com.biervorrat.dto.HotKeyDTO;
+
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sliding window of {@link TopKSketch} buckets. Keys are counted in the current bucket;
+ * {@link #rotate()} clears the oldest bucket and makes it current, so the window always covers the
+ * last {@code buckets - 1} to {@code buckets} rotation intervals.
+ */
+final class WindowedTopK {
+
+    private final TopKSketch[] buckets;
+    private final int k;
+    private volatile int current;
+
+    WindowedTopK(int buckets, int width, int depth, int k) {
+        this.buckets = new TopKSketch[buckets];
+        for (int i = 0; i < buckets; i++) {
+            this.buckets[i] = new TopKSketch(width, depth, k);
+        }
+        this.k = k;
+    }
+
+    void add(long id) {
+        buckets[current].add(id);
+    }
+
+    synchronized void rotate() {
+        int next = (current + 1) % buckets.length;
+        buckets[next].reset();
+        current = next;
+    }
+
+    long estimate(long id) {
+        long estimate = 0;
+        for (TopKSketch bucket : buckets) {
+            estimate += bucket.estimate(id);
+        }
+        return estimate;
+    }
+
+    List<HotKeyDTO> top() {
+        Set<Long> candidates = new LinkedHashSet<>();
+        for (TopKSketch bucket : buckets) {
+            for (long id : bucket.candidates()) {
+                candidates.add(id);
+            }
+        }
+        return candidates.stream()
+                .map(id -> new HotKeyDTO(id, estimate(id)))
+                .filter(hotKey -> hotKey.getCount() > 0)
+                .sorted(Comparator.comparingLong(HotKeyDTO::getCount).reversed())
+                .limit(k)
+                .collect(Collectors.toList());
+    }
+}
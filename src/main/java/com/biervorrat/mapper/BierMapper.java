@@ -3,6 +3,7 @@ package com.biervorrat.mapper;
 import com.biervorrat.dto.BierDTO;
 import com.biervorrat.entity.Bier;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper(componentModel = "spring")
@@ -12,5 +13,7 @@ public interface BierMapper {
 
     BierDTO toDTO(Bier bier);
 
+    @Mapping(target = "fillRatio", ignore = true)
+    @Mapping(target = "changeSeq", ignore = true)
     Bier toModel(BierDTO bierDTO);
 }
@@ -0,0 +1,90 @@
+package com.biervorrat.metrics;
+
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.exception.BierNotFoundException;
+import com.biervorrat.exception.BierStockExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Times every public {@code BierService} operation, counts not-found and stock-exceeded rejections
+ * and gauges the stock mutations in flight. Tags are limited to the operation, the {@code BierType}
+ * of the result and the exception class, so cardinality does not grow with the inventory.
+ */
+@Aspect
+@Component
+public class BierServiceMetrics {
+
+    static final String OPERATION_TIMER = "biervorrat.service.operations";
+    static final String REJECTION_COUNTER = "biervorrat.service.rejections";
+    static final String IN_FLIGHT_GAUGE = "biervorrat.stock.mutations.in-flight";
+
+    private static final String NONE = "none";
+    private static final Set<String> STOCK_MUTATIONS = Set.of(
+            "increment", "decrement", "incrementAsync", "decrementAsync",
+            "incrementIfCurrent", "decrementIfCurrent", "adjustStock");
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger inFlightMutations = new AtomicInteger();
+
+    public BierServiceMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge(IN_FLIGHT_GAUGE, inFlightMutations);
+    }
+
+    @Around("execution(public * com.biervorrat.service.BierService.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        boolean mutation = STOCK_MUTATIONS.contains(operation);
+        if (mutation) {
+            inFlightMutations.incrementAndGet();
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            complete(sample, operation, mutation, null, e);
+            throw e;
+        }
+        if (result instanceof CompletableFuture) {
+            ((CompletableFuture<?>) result).whenComplete((value, e) -> complete(sample, operation, mutation, value, e));
+        } else {
+            complete(sample, operation, mutation, result, null);
+        }
+        return result;
+    }
+
+    private void complete(Timer.Sample sample, String operation, boolean mutation, Object result, Throwable error) {
+        if (mutation) {
+            inFlightMutations.decrementAndGet();
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String exception = cause == null ? NONE : cause.getClass().getSimpleName();
+        Tags tags = Tags.of("operation", operation, "type", typeOf(result), "exception", exception);
+        sample.stop(Timer.builder(OPERATION_TIMER)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        if (cause instanceof BierNotFoundException || cause instanceof BierStockExceededException) {
+            meterRegistry.counter(REJECTION_COUNTER, "operation", operation, "exception", exception).increment();
+        }
+    }
+
+    private static String typeOf(Object result) {
+        BierDTO bier = result instanceof VersionedBierDTO ? ((VersionedBierDTO) result).getBier()
+                : result instanceof BierDTO ? (BierDTO) result : null;
+        return bier == null || bier.getType() == null ? NONE : bier.getType().name();
+    }
+}
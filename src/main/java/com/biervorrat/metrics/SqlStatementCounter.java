@@ -0,0 +1,79 @@
+package com.biervorrat.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Counts the SQL statements Hibernate prepares into the {@link Counts} bound to the current thread;
+ * statements on a thread without bound counts are not counted. Tasks decorated on a thread with bound
+ * counts carry them to the thread that runs them, so work handed to a stripe writer or an async
+ * executor is charged to the request that handed it over.
+ */
+public class SqlStatementCounter implements StatementInspector, TaskDecorator {
+
+    public enum Kind {
+        SELECT, INSERT, UPDATE, DELETE, OTHER
+    }
+
+    private final ThreadLocal<Counts> current = new ThreadLocal<>();
+
+    public void bind(Counts counts) {
+        current.set(counts);
+    }
+
+    public void unbind() {
+        current.remove();
+    }
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        Counts counts = current.get();
+        if (counts == null) {
+            return task;
+        }
+        return () -> {
+            Counts previous = current.get();
+            current.set(counts);
+            try {
+                task.run();
+            } finally {
+                current.set(previous);
+            }
+        };
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Counts counts = current.get();
+        if (counts != null) {
+            counts.add(kindOf(sql));
+        }
+        return sql;
+    }
+
+    static Kind kindOf(String sql) {
+        String statement = sql.stripLeading().toLowerCase(Locale.ROOT);
+        for (Kind kind : Kind.values()) {
+            if (statement.startsWith(kind.name().toLowerCase(Locale.ROOT))) {
+                return kind;
+            }
+        }
+        return Kind.OTHER;
+    }
+
+    public static final class Counts {
+
+        private final AtomicIntegerArray counts = new AtomicIntegerArray(Kind.values().length);
+
+        private void add(Kind kind) {
+            counts.incrementAndGet(kind.ordinal());
+        }
+
+        public int get(Kind kind) {
+            return counts.get(kind.ordinal());
+        }
+    }
+}
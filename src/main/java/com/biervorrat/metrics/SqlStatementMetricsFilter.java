@@ -0,0 +1,68 @@
+package com.biervorrat.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Records how many statements of each kind a request ran, tagged by the matched URI pattern rather
+ * than the raw path. Requests that go async keep one set of counts across their dispatches and are
+ * recorded once, when the last dispatch ends, so statements run by the async work are included.
+ */
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    static final String STATEMENTS_SUMMARY = "biervorrat.http.sql.statements";
+
+    private static final String COUNTS_ATTRIBUTE = SqlStatementMetricsFilter.class.getName() + ".COUNTS";
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final SqlStatementCounter sqlStatementCounter;
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatementMetricsFilter(SqlStatementCounter sqlStatementCounter, MeterRegistry meterRegistry) {
+        this.sqlStatementCounter = sqlStatementCounter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        SqlStatementCounter.Counts counts = (SqlStatementCounter.Counts) request.getAttribute(COUNTS_ATTRIBUTE);
+        if (counts == null) {
+            counts = new SqlStatementCounter.Counts();
+            request.setAttribute(COUNTS_ATTRIBUTE, counts);
+        }
+        sqlStatementCounter.bind(counts);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            sqlStatementCounter.unbind();
+            if (!isAsyncStarted(request)) {
+                record(request, counts);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementCounter.Counts counts) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? UNKNOWN_URI : pattern.toString();
+        for (SqlStatementCounter.Kind kind : SqlStatementCounter.Kind.values()) {
+            DistributionSummary.builder(STATEMENTS_SUMMARY)
+                    .tags("method", request.getMethod(), "uri", uri, "statement", kind.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry)
+                    .record(counts.get(kind));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.biervorrat.repository;
+
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.enums.BierSortKey;
+import com.biervorrat.exception.InvalidBierCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Value
+@AllArgsConstructor
+public class BierPageCursor {
+
+    private static final char SEPARATOR = ':';
+
+    BierSortKey sortKey;
+
+    String lastValue;
+
+    public static BierPageCursor after(BierSortKey sortKey, BierDTO bier) {
+        String lastValue = sortKey == BierSortKey.ID ? String.valueOf(bier.getId()) : bier.getName();
+        return new BierPageCursor(sortKey, lastValue);
+    }
+
+    public static BierPageCursor decode(String cursor) throws InvalidBierCursorException {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            BierSortKey sortKey = BierSortKey.valueOf(decoded.substring(0, separator));
+            String lastValue = decoded.substring(separator + 1);
+            if (sortKey == BierSortKey.ID) {
+                Long.parseLong(lastValue);
+            }
+            return new BierPageCursor(sortKey, lastValue);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidBierCursorException(cursor);
+        }
+    }
+
+    public String encode() {
+        String raw = sortKey.name() + SEPARATOR + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,12 +1,93 @@
 package com.biervorrat.repository;
 
 
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.BierNameDTO;
+import com.biervorrat.dto.VersionedBierDTO;
 import com.biervorrat.entity.Bier;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface BierRepository extends JpaRepository<Bier, Long> {
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface BierRepository extends JpaRepository<Bier, Long>, BierRepositoryCustom {
 
     Optional<Bier> findByName(String name);
+
+    @Query("SELECT new com.biervorrat.dto.BierDTO(b.id, b.name, b.brand, b.max, b.quantity, b.type) " +
+            "FROM Bier b WHERE b.name = :name")
+    Optional<BierDTO> findDTOByName(@Param("name") String name);
+
+    @Query("SELECT new com.biervorrat.dto.BierDTO(b.id, b.name, b.brand, b.max, b.quantity, b.type) " +
+            "FROM Bier b WHERE b.name IN :names")
+    List<BierDTO> findDTOsByNameIn(@Param("names") Collection<String> names);
+
+    @Query("SELECT new com.biervorrat.dto.BierDTO(b.id, b.name, b.brand, b.max, b.quantity, b.type) " +
+            "FROM Bier b WHERE b.id IN :ids")
+    List<BierDTO> findDTOsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.biervorrat.dto.BierDTO(b.id, b.name, b.brand, b.max, b.quantity, b.type) " +
+            "FROM Bier b ORDER BY b.id")
+    List<BierDTO> findAllDTOs();
+
+    @Query("SELECT new com.biervorrat.dto.BierDTO(b.id, b.name, b.brand, b.max, b.quantity, b.type) " +
+            "FROM Bier b WHERE b.fillRatio < :threshold ORDER BY b.fillRatio, b.id")
+    List<BierDTO> findLowStock(@Param("threshold") double threshold, Pageable pageable);
+
+    @Query("SELECT b FROM Bier b WHERE b.changeSeq > :since AND b.changeSeq <= :upTo ORDER BY b.changeSeq")
+    List<Bier> findChanges(@Param("since") long since, @Param("upTo") long upTo, Pageable pageable);
+
+    @Query("SELECT new com.biervorrat.dto.VersionedBierDTO(b.id, b.name, b.brand, b.max, b.quantity, b.type, b.changeSeq) " +
+            "FROM Bier b WHERE b.name = :name")
+    Optional<VersionedBierDTO> findVersionedDTOByName(@Param("name") String name);
+
+    @Query("SELECT new com.biervorrat.dto.VersionedBierDTO(b.id, b.name, b.brand, b.max, b.quantity, b.type, b.changeSeq) " +
+            "FROM Bier b ORDER BY b.id")
+    List<VersionedBierDTO> findAllVersionedDTOs();
+
+    @Query("SELECT COALESCE(MAX(b.changeSeq), 0) FROM Bier b")
+    long findMaxChangeSeq();
+
+    @Query("SELECT new com.biervorrat.dto.BierNameDTO(b.id, b.name) FROM Bier b")
+    List<BierNameDTO> findAllNames();
+
+    @Query("SELECT b.name FROM Bier b WHERE b.name IN :names")
+    List<String> findNamesByNameIn(@Param("names") Collection<String> names);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT b FROM Bier b ORDER BY b.id")
+    Stream<Bier> streamAllByOrderById();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Bier b WHERE b.id IN :ids ORDER BY b.id")
+    List<Bier> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Bier b SET b.quantity = b.quantity + :delta, b.changeSeq = :changeSeq, " +
+            "b.fillRatio = COALESCE(1.0 * (b.quantity + :delta) / NULLIF(b.max, 0), 0.0) " +
+            "WHERE b.id = :id AND b.quantity + :delta BETWEEN 0 AND b.max")
+    int adjustQuantity(@Param("id") Long id, @Param("delta") int delta, @Param("changeSeq") long changeSeq);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Bier b SET b.quantity = b.quantity + :delta, b.changeSeq = :changeSeq, " +
+            "b.fillRatio = COALESCE(1.0 * (b.quantity + :delta) / NULLIF(b.max, 0), 0.0) " +
+            "WHERE b.id = :id AND b.changeSeq = :expectedChangeSeq AND b.quantity + :delta BETWEEN 0 AND b.max")
+    int adjustQuantityIfCurrent(@Param("id") Long id, @Param("delta") int delta,
+                                @Param("expectedChangeSeq") long expectedChangeSeq, @Param("changeSeq") long changeSeq);
 }
@@ -0,0 +1,20 @@
+package com.biervorrat.repository;
+
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.enums.BierField;
+import com.biervorrat.enums.BierSortKey;
+import com.biervorrat.enums.BierType;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface BierRepositoryCustom {
+
+    List<BierDTO> findPage(BierSortKey sortKey, BierPageCursor after, BierType type, String brand, int limit);
+
+    List<BierDTO> findPage(BierSortKey sortKey, BierPageCursor after, BierType type, String brand, int limit, Set<BierField> fields);
+
+    Optional<VersionedBierDTO> findFieldsByName(String name, Set<BierField> fields);
+}
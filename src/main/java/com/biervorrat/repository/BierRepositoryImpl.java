@@ -0,0 +1,120 @@
+package com.biervorrat.repository;
+
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.entity.Bier;
+import com.biervorrat.enums.BierField;
+import com.biervorrat.enums.BierSortKey;
+import com.biervorrat.enums.BierType;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BierRepositoryImpl implements BierRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<BierDTO> findPage(BierSortKey sortKey, BierPageCursor after, BierType type, String brand, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BierDTO> query = criteriaBuilder.createQuery(BierDTO.class);
+        Root<Bier> bier = query.from(Bier.class);
+
+        query.select(criteriaBuilder.construct(BierDTO.class,
+                        bier.get("id"), bier.get("name"), bier.get("brand"),
+                        bier.get("max"), bier.get("quantity"), bier.get("type")))
+                .where(pagePredicates(criteriaBuilder, bier, sortKey, after, type, brand))
+                .orderBy(criteriaBuilder.asc(bier.get(sortKey.getProperty())));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<BierDTO> findPage(BierSortKey sortKey, BierPageCursor after, BierType type, String brand, int limit, Set<BierField> fields) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Bier> bier = query.from(Bier.class);
+        List<BierField> selectedFields = selectedFields(fields, BierField.of(sortKey));
+
+        query.multiselect(selections(bier, selectedFields))
+                .where(pagePredicates(criteriaBuilder, bier, sortKey, after, type, brand))
+                .orderBy(criteriaBuilder.asc(bier.get(sortKey.getProperty())));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(tuple -> toDTO(tuple, selectedFields))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<VersionedBierDTO> findFieldsByName(String name, Set<BierField> fields) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Bier> bier = query.from(Bier.class);
+        List<BierField> selectedFields = selectedFields(fields, BierField.ID);
+        List<Selection<?>> selections = selections(bier, selectedFields);
+        selections.add(bier.get("changeSeq"));
+
+        query.multiselect(selections)
+                .where(criteriaBuilder.equal(bier.get("name"), name));
+        return entityManager.createQuery(query)
+                .setMaxResults(1)
+                .getResultList()
+                .stream()
+                .findFirst()
+                .map(tuple -> new VersionedBierDTO(toDTO(tuple, selectedFields), tuple.get(selectedFields.size(), Long.class)));
+    }
+
+    private Predicate[] pagePredicates(CriteriaBuilder criteriaBuilder, Root<Bier> bier, BierSortKey sortKey, BierPageCursor after, BierType type, String brand) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (type != null) {
+            predicates.add(criteriaBuilder.equal(bier.get("type"), type));
+        }
+        if (brand != null) {
+            predicates.add(criteriaBuilder.equal(bier.get("brand"), brand));
+        }
+        if (after != null && sortKey == BierSortKey.ID) {
+            predicates.add(criteriaBuilder.greaterThan(bier.<Long>get("id"), Long.valueOf(after.getLastValue())));
+        } else if (after != null) {
+            predicates.add(criteriaBuilder.greaterThan(bier.<String>get("name"), after.getLastValue()));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    private static List<BierField> selectedFields(Set<BierField> fields, BierField keyField) {
+        Set<BierField> selected = EnumSet.copyOf(fields);
+        selected.add(BierField.ID);
+        selected.add(keyField);
+        return new ArrayList<>(selected);
+    }
+
+    private static List<Selection<?>> selections(Root<Bier> bier, List<BierField> fields) {
+        return fields.stream()
+                .<Selection<?>>map(field -> bier.get(field.getProperty()))
+                .collect(Collectors.toList());
+    }
+
+    private static BierDTO toDTO(Tuple tuple, List<BierField> fields) {
+        BierDTO bierDTO = new BierDTO();
+        for (int i = 0; i < fields.size(); i++) {
+            fields.get(i).write(bierDTO, tuple.get(i));
+        }
+        return bierDTO;
+    }
+}
@@ -0,0 +1,21 @@
+package com.biervorrat.repository;
+
+import com.biervorrat.entity.BierTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface BierTombstoneRepository extends JpaRepository<BierTombstone, Long> {
+
+    @Query("SELECT t FROM BierTombstone t WHERE t.changeSeq > :since AND t.changeSeq <= :upTo ORDER BY t.changeSeq")
+    List<BierTombstone> findChanges(@Param("since") long since, @Param("upTo") long upTo, Pageable pageable);
+
+    @Query("SELECT t FROM BierTombstone t WHERE t.changeSeq > :since")
+    List<BierTombstone> findAllChangedSince(@Param("since") long since);
+
+    @Query("SELECT COALESCE(MAX(t.changeSeq), 0) FROM BierTombstone t")
+    long findMaxChangeSeq();
+}
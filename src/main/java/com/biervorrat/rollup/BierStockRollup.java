@@ -0,0 +1,188 @@
+package com.biervorrat.rollup;
+
+import com.biervorrat.changes.ChangeSequencer;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.BierStockSummaryDTO;
+import com.biervorrat.dto.StockRollupDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.enums.BierChangeType;
+import com.biervorrat.entity.BierTombstone;
+import com.biervorrat.enums.BierType;
+import com.biervorrat.event.BierChangeEvent;
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.repository.BierTombstoneRepository;
+import com.biervorrat.stock.StockEngine;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Stock totals per type and per brand, kept current from committed change events so the summary
+ * costs O(#types + #brands). {@link #rebuild()} recomputes everything from the biers table and
+ * remembers which change sequences it read: everything up to the high-water mark, plus the sequence
+ * of each bier changed or deleted after it. Events at or below those are ignored, so a change
+ * committed just before the rebuild is not counted again when its event arrives afterwards. Changes
+ * an engine applies in memory carry no sequence; the rebuild reads through
+ * {@link StockEngine#readConsistently} so none of them is caught between its quantity and its event.
+ */
+@Component
+public class BierStockRollup {
+
+    private final BierRepository bierRepository;
+    private final BierTombstoneRepository bierTombstoneRepository;
+    private final StockEngine stockEngine;
+    private final ChangeSequencer changeSequencer;
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile Totals totals = new Totals(0);
+
+    public BierStockRollup(BierRepository bierRepository,
+                           BierTombstoneRepository bierTombstoneRepository,
+                           StockEngine stockEngine,
+                           ChangeSequencer changeSequencer) {
+        this.bierRepository = bierRepository;
+        this.bierTombstoneRepository = bierTombstoneRepository;
+        this.stockEngine = stockEngine;
+        this.changeSequencer = changeSequencer;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBierChange(BierChangeEvent event) {
+        Lock lock = rebuildLock.readLock();
+        lock.lock();
+        try {
+            Totals current = totals;
+            if (!current.hasRead(event)) {
+                current.apply(event);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        stockEngine.readConsistently(this::rebuildTotals);
+    }
+
+    private void rebuildTotals() {
+        Lock lock = rebuildLock.writeLock();
+        lock.lock();
+        try {
+            Totals rebuilt = new Totals(changeSequencer.highWaterMark());
+            List<VersionedBierDTO> biers = bierRepository.findAllVersionedDTOs();
+            for (VersionedBierDTO versionedBier : biers) {
+                BierDTO bier = stockEngine.currentState(versionedBier.getBier());
+                rebuilt.read(bier.getId(), versionedBier.getVersion());
+                rebuilt.apply(BierChangeEvent.created(bier, versionedBier.getVersion()));
+            }
+            List<Long> readIds = biers.stream()
+                    .map(versionedBier -> versionedBier.getBier().getId())
+                    .collect(Collectors.toList());
+            for (BierTombstone tombstone : bierTombstoneRepository.findAllChangedSince(rebuilt.readThrough)) {
+                if (Collections.binarySearch(readIds, tombstone.getId()) < 0) {
+                    rebuilt.read(tombstone.getId(), tombstone.getChangeSeq());
+                }
+            }
+            totals = rebuilt;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public BierStockSummaryDTO summary() {
+        Totals current = totals;
+        return new BierStockSummaryDTO(toDTOs(current.byType), toDTOs(current.byBrand));
+    }
+
+    private static <K> List<StockRollupDTO> toDTOs(Map<K, Rollup> rollups) {
+        return rollups.entrySet()
+                .stream()
+                .filter(entry -> entry.getValue().biers.get() > 0)
+                .map(entry -> entry.getValue().toDTO(entry.getKey().toString()))
+                .sorted(Comparator.comparing(StockRollupDTO::getKey))
+                .collect(Collectors.toList());
+    }
+
+    private static final class Totals {
+
+        private final Map<BierType, Rollup> byType = new ConcurrentHashMap<>();
+        private final Map<String, Rollup> byBrand = new ConcurrentHashMap<>();
+        private final long readThrough;
+        private final Map<Long, Long> readSequences = new HashMap<>();
+
+        private Totals(long readThrough) {
+            this.readThrough = readThrough;
+        }
+
+        private void read(Long id, long changeSeq) {
+            if (changeSeq > readThrough) {
+                readSequences.put(id, changeSeq);
+            }
+        }
+
+        private boolean hasRead(BierChangeEvent event) {
+            if (!event.isSequenced()) {
+                return false;
+            }
+            if (event.getChangeSeq() <= readThrough) {
+                return true;
+            }
+            Long readSequence = readSequences.get(event.getBier().getId());
+            return readSequence != null && event.getChangeSeq() <= readSequence;
+        }
+
+        private void apply(BierChangeEvent event) {
+            BierDTO bier = event.getBier();
+            int bierDelta = 0;
+            int capacityDelta = 0;
+            if (event.getType() == BierChangeType.CREATED) {
+                bierDelta = 1;
+                capacityDelta = bier.getMax();
+            } else if (event.getType() == BierChangeType.DELETED) {
+                bierDelta = -1;
+                capacityDelta = -bier.getMax();
+            }
+            byType.computeIfAbsent(bier.getType(), type -> new Rollup()).add(bierDelta, event.getQuantityDelta(), capacityDelta);
+            byBrand.computeIfAbsent(bier.getBrand(), brand -> new Rollup()).add(bierDelta, event.getQuantityDelta(), capacityDelta);
+        }
+    }
+
+    private static final class Rollup {
+
+        private final AtomicLong biers = new AtomicLong();
+        private final AtomicLong quantity = new AtomicLong();
+        private final AtomicLong capacity = new AtomicLong();
+
+        private void add(int bierDelta, int quantityDelta, int capacityDelta) {
+            biers.addAndGet(bierDelta);
+            quantity.addAndGet(quantityDelta);
+            capacity.addAndGet(capacityDelta);
+        }
+
+        private StockRollupDTO toDTO(String key) {
+            long currentQuantity = quantity.get();
+            long currentCapacity = capacity.get();
+            double fillRatio = currentCapacity == 0 ? 0 : (double) currentQuantity / currentCapacity;
+            return new StockRollupDTO(key, biers.get(), currentQuantity, currentCapacity, fillRatio);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.biervorrat.service;
+
+import com.biervorrat.event.BierChangeEvent;
+
+import java.io.IOException;
+
+interface BierChangeSink {
+
+    void send(BierChangeEvent event) throws IOException;
+
+    void close();
+}
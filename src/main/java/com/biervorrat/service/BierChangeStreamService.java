@@ -0,0 +1,272 @@
+package com.biervorrat.service;
+
+import com.biervorrat.config.BiervorratProperties;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.enums.BierType;
+import com.biervorrat.event.BierChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed bier changes to SSE subscribers. Writers only drop the change into each matching
+ * subscriber's bounded buffer, where pending changes of the same bier collapse to the latest one;
+ * a small sender pool drains the buffers, so a slow client only ever loses its own oldest changes.
+ * A send that blocks longer than the send timeout evicts its subscriber, and the pool gets a spare
+ * sender until the blocked one returns, so stalled clients cannot starve the others.
+ */
+@Service
+public class BierChangeStreamService {
+
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService stallDetector;
+    private final Counter droppedChanges;
+    private final Counter stalledSubscribers;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    public BierChangeStreamService(BiervorratProperties properties, MeterRegistry meterRegistry) {
+        BiervorratProperties.ChangeStream changeStream = properties.getChangeStream();
+        this.bufferSize = changeStream.getBufferSize();
+        this.timeoutMillis = changeStream.getTimeout().toMillis();
+        this.sendTimeoutNanos = changeStream.getSendTimeout().toNanos();
+        AtomicInteger senderCount = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(changeStream.getSenderThreads(), changeStream.getSenderThreads(),
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "bier-change-sender-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.stallDetector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bier-change-stall-detector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkIntervalNanos = Math.max(sendTimeoutNanos / 4, TimeUnit.MILLISECONDS.toNanos(1));
+        stallDetector.scheduleWithFixedDelay(this::evictStalledSubscribers, checkIntervalNanos, checkIntervalNanos, TimeUnit.NANOSECONDS);
+        this.droppedChanges = Counter.builder("biers.stream.dropped")
+                .description("Bier changes dropped because a subscriber buffer was full")
+                .register(meterRegistry);
+        this.stalledSubscribers = Counter.builder("biers.stream.stalled")
+                .description("Subscribers evicted because a send blocked longer than the send timeout")
+                .register(meterRegistry);
+        Gauge.builder("biers.stream.subscribers", subscribers, Set::size)
+                .description("Open bier change stream subscriptions")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long id, BierType type, String brand) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = subscribe(id, type, brand, new SseEmitterSink(emitter));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    Subscriber subscribe(Long id, BierType type, String brand, BierChangeSink sink) {
+        Subscriber subscriber = new Subscriber(id, type, brand, sink);
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBierChange(BierChangeEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.matches(event.getBier()) && subscriber.offer(event)) {
+                senders.execute(subscriber::drain);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        stallDetector.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(Subscriber::close);
+    }
+
+    private void evictStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.evictIfStalled(now)) {
+                stalledSubscribers.increment();
+                resizeSenders(1);
+            }
+        }
+    }
+
+    private void resizeSenders(int delta) {
+        synchronized (senders) {
+            if (delta > 0) {
+                senders.setMaximumPoolSize(senders.getMaximumPoolSize() + delta);
+                senders.setCorePoolSize(senders.getCorePoolSize() + delta);
+            } else {
+                senders.setCorePoolSize(senders.getCorePoolSize() + delta);
+                senders.setMaximumPoolSize(senders.getMaximumPoolSize() + delta);
+            }
+        }
+    }
+
+    final class Subscriber {
+
+        private final Long id;
+        private final BierType type;
+        private final String brand;
+        private final BierChangeSink sink;
+        private final Map<Long, BierChangeEvent> pending = new LinkedHashMap<>();
+        private boolean draining;
+        private Thread sendingThread;
+        private long sendStartedAt;
+        private boolean stalled;
+
+        private Subscriber(Long id, BierType type, String brand, BierChangeSink sink) {
+            this.id = id;
+            this.type = type;
+            this.brand = brand;
+            this.sink = sink;
+        }
+
+        private boolean matches(BierDTO bier) {
+            return (id == null || id.equals(bier.getId()))
+                    && (type == null || type == bier.getType())
+                    && (brand == null || Objects.equals(brand, bier.getBrand()));
+        }
+
+        /**
+         * Returns true when the caller has to schedule a drain.
+         */
+        private synchronized boolean offer(BierChangeEvent event) {
+            Long bierId = event.getBier().getId();
+            pending.remove(bierId);
+            pending.put(bierId, event);
+            if (pending.size() > bufferSize) {
+                Iterator<BierChangeEvent> oldest = pending.values().iterator();
+                oldest.next();
+                oldest.remove();
+                droppedChanges.increment();
+            }
+            if (draining) {
+                return false;
+            }
+            draining = true;
+            return true;
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    List<BierChangeEvent> changes;
+                    synchronized (this) {
+                        if (pending.isEmpty()) {
+                            draining = false;
+                            return;
+                        }
+                        changes = new ArrayList<>(pending.values());
+                        pending.clear();
+                    }
+                    for (BierChangeEvent change : changes) {
+                        if (!send(change)) {
+                            return;
+                        }
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+            } finally {
+                if (isStalled()) {
+                    close();
+                    resizeSenders(-1);
+                }
+            }
+        }
+
+        /**
+         * Returns false when the subscriber was evicted while the send was blocked.
+         */
+        private boolean send(BierChangeEvent change) throws IOException {
+            synchronized (this) {
+                sendingThread = Thread.currentThread();
+                sendStartedAt = System.nanoTime();
+            }
+            try {
+                sink.send(change);
+            } finally {
+                synchronized (this) {
+                    sendingThread = null;
+                }
+            }
+            return !isStalled();
+        }
+
+        private synchronized boolean isStalled() {
+            return stalled;
+        }
+
+        /**
+         * Only the blocked sender closes the sink, once its send returns; closing an SseEmitter waits
+         * for the send in progress.
+         */
+        private synchronized boolean evictIfStalled(long now) {
+            if (stalled || sendingThread == null || now - sendStartedAt < sendTimeoutNanos) {
+                return false;
+            }
+            stalled = true;
+            subscribers.remove(this);
+            sendingThread.interrupt();
+            return true;
+        }
+
+        private void close() {
+            subscribers.remove(this);
+            sink.close();
+        }
+    }
+
+    private static final class SseEmitterSink implements BierChangeSink {
+
+        private final SseEmitter emitter;
+
+        private SseEmitterSink(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void send(BierChangeEvent event) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .name(event.getType().name())
+                    .data(event.getBier()));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.biervorrat.service;
+
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.entity.Bier;
+import com.biervorrat.enums.BierFileFormat;
+import com.biervorrat.mapper.BierMapper;
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.stock.StockEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BierExportService {
+
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("name")
+            .addColumn("brand")
+            .addColumn("max")
+            .addColumn("quantity")
+            .addColumn("type")
+            .build()
+            .withHeader();
+
+    private final BierRepository bierRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final StockEngine stockEngine;
+    private final BierMapper bierMapper = BierMapper.INSTANCE;
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    @Transactional(readOnly = true)
+    public long exportBiers(OutputStream outputStream, BierFileFormat format) throws IOException {
+        ObjectWriter writer = format == BierFileFormat.CSV
+                ? csvMapper.writerFor(BierDTO.class).with(CSV_SCHEMA)
+                : objectMapper.writerFor(BierDTO.class).withRootValueSeparator("\n");
+
+        long exported = 0;
+        try (Stream<Bier> biers = bierRepository.streamAllByOrderById();
+             SequenceWriter sequenceWriter = writer.writeValues(outputStream)) {
+            Iterator<Bier> iterator = biers.iterator();
+            while (iterator.hasNext()) {
+                Bier bier = iterator.next();
+                sequenceWriter.write(stockEngine.currentState(bierMapper.toDTO(bier)));
+                entityManager.detach(bier);
+                exported++;
+            }
+        }
+        return exported;
+    }
+}
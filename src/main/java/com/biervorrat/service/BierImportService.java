@@ -0,0 +1,154 @@
+package com.biervorrat.service;
+
+import com.biervorrat.cache.BierNameRegistry;
+import com.biervorrat.changes.ChangeSequencer;
+import com.biervorrat.config.BiervorratProperties;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.BierImportSummaryDTO;
+import com.biervorrat.entity.Bier;
+import com.biervorrat.enums.BierFileFormat;
+import com.biervorrat.event.BierChangeEvent;
+import com.biervorrat.mapper.BierMapper;
+import com.biervorrat.repository.BierRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BierImportService {
+
+    private final BierRepository bierRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final BiervorratProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeSequencer changeSequencer;
+    private final BierNameRegistry bierNameRegistry;
+    private final BierMapper bierMapper = BierMapper.INSTANCE;
+    private final CsvMapper csvMapper = CsvMapper.builder()
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .build();
+
+    public BierImportSummaryDTO importBiers(InputStream inputStream, BierFileFormat format) throws IOException {
+        BierImportSummaryDTO summary = new BierImportSummaryDTO();
+        List<BierDTO> chunk = new ArrayList<>(properties.getBulkImport().getChunkSize());
+        if (format == BierFileFormat.CSV) {
+            importCsvRows(inputStream, chunk, summary);
+        } else {
+            importNdjsonRows(inputStream, chunk, summary);
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, summary);
+        }
+        return summary;
+    }
+
+    private void importNdjsonRows(InputStream inputStream, List<BierDTO> chunk, BierImportSummaryDTO summary) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        ObjectReader rowReader = objectMapper.readerFor(BierDTO.class);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                addRow(rowReader.readValue(line), chunk, summary);
+            } catch (JsonProcessingException e) {
+                addRow(null, chunk, summary);
+            }
+        }
+    }
+
+    private void importCsvRows(InputStream inputStream, List<BierDTO> chunk, BierImportSummaryDTO summary) throws IOException {
+        ObjectReader rowReader = csvMapper.readerFor(BierDTO.class).with(CsvSchema.emptySchema().withHeader());
+        try (MappingIterator<BierDTO> rows = rowReader.readValues(inputStream)) {
+            while (rows.hasNextValue()) {
+                try {
+                    addRow(rows.nextValue(), chunk, summary);
+                } catch (JsonProcessingException e) {
+                    addRow(null, chunk, summary);
+                }
+            }
+        }
+    }
+
+    private void addRow(BierDTO bierDTO, List<BierDTO> chunk, BierImportSummaryDTO summary) {
+        if (bierDTO == null || !validator.validate(bierDTO).isEmpty()) {
+            summary.setInvalid(summary.getInvalid() + 1);
+            return;
+        }
+        bierDTO.setId(null);
+        chunk.add(bierDTO);
+        if (chunk.size() == properties.getBulkImport().getChunkSize()) {
+            importChunk(chunk, summary);
+            chunk.clear();
+        }
+    }
+
+    private void importChunk(List<BierDTO> chunk, BierImportSummaryDTO summary) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertChunk(chunk, summary));
+        } catch (DataIntegrityViolationException e) {
+            if (chunk.size() == 1) {
+                summary.setDuplicates(summary.getDuplicates() + 1);
+            } else {
+                chunk.forEach(bierDTO -> importChunk(List.of(bierDTO), summary));
+            }
+        }
+    }
+
+    private void insertChunk(List<BierDTO> chunk, BierImportSummaryDTO summary) {
+        Set<String> names = chunk.stream()
+                .map(BierDTO::getName)
+                .filter(name -> !bierNameRegistry.isDefinitelyAbsent(name))
+                .collect(Collectors.toSet());
+        Set<String> registeredNames = names.isEmpty() ? new HashSet<>() : new HashSet<>(bierRepository.findNamesByNameIn(names));
+
+        List<Bier> biersToInsert = new ArrayList<>(chunk.size());
+        long duplicates = 0;
+        for (BierDTO bierDTO : chunk) {
+            if (registeredNames.add(bierDTO.getName())) {
+                Bier bier = bierMapper.toModel(bierDTO);
+                bier.setChangeSeq(changeSequencer.next());
+                biersToInsert.add(bier);
+            } else {
+                duplicates++;
+            }
+        }
+        bierRepository.saveAll(biersToInsert);
+        biersToInsert.forEach(bier -> bierNameRegistry.register(bier.getName(), bier.getId()));
+        bierRepository.flush();
+        biersToInsert.forEach(bier -> eventPublisher.publishEvent(BierChangeEvent.created(bierMapper.toDTO(bier), bier.getChangeSeq())));
+        entityManager.clear();
+
+        summary.setInserted(summary.getInserted() + biersToInsert.size());
+        summary.setDuplicates(summary.getDuplicates() + duplicates);
+    }
+}
@@ -1,18 +1,54 @@
 package com.biervorrat.service;
 
+import com.biervorrat.cache.BierNameCache;
+import com.biervorrat.cache.BierNameRegistry;
+import com.biervorrat.config.BiervorratProperties;
+import com.biervorrat.changes.ChangeSequencer;
+import com.biervorrat.dto.BierChangesDTO;
 import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.BierFieldsPageDTO;
+import com.biervorrat.dto.BierLookupRequestDTO;
+import com.biervorrat.dto.BierLookupResultDTO;
+import com.biervorrat.dto.BierPageDTO;
+import com.biervorrat.dto.BierStockSummaryDTO;
+import com.biervorrat.dto.StockAdjustmentDTO;
+import com.biervorrat.dto.StockAdjustmentResultDTO;
+import com.biervorrat.dto.VersionedBierDTO;
 import com.biervorrat.entity.Bier;
+import com.biervorrat.entity.BierTombstone;
+import com.biervorrat.enums.BierField;
+import com.biervorrat.enums.BierSortKey;
+import com.biervorrat.enums.BierType;
+import com.biervorrat.enums.StockAdjustmentMode;
+import com.biervorrat.event.BierChangeEvent;
 import com.biervorrat.exception.BierAlreadyRegisteredException;
+import com.biervorrat.exception.BierLookupTooLargeException;
 import com.biervorrat.exception.BierNotFoundException;
 import com.biervorrat.exception.BierStockExceededException;
+import com.biervorrat.exception.BierVersionMismatchException;
+import com.biervorrat.exception.InvalidBierCursorException;
+import com.biervorrat.hotkeys.BierHotKeyTracker;
 import com.biervorrat.mapper.BierMapper;
+import com.biervorrat.repository.BierPageCursor;
 import com.biervorrat.repository.BierRepository;
+import com.biervorrat.repository.BierTombstoneRepository;
+import com.biervorrat.rollup.BierStockRollup;
+import com.biervorrat.stock.StockEngine;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,64 +56,262 @@ import java.util.stream.Collectors;
 public class BierService {
 
     private final BierRepository bierRepository;
+    private final BiervorratProperties properties;
+    private final BierNameCache bierNameCache;
+    private final BierNameRegistry bierNameRegistry;
+    private final StockEngine stockEngine;
+    private final BierStockRollup bierStockRollup;
+    private final BierTombstoneRepository bierTombstoneRepository;
+    private final ChangeSequencer changeSequencer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BierHotKeyTracker bierHotKeyTracker;
     private final BierMapper bierMapper = BierMapper.INSTANCE;
 
+    @Transactional
     public BierDTO createBier(BierDTO bierDTO) throws BierAlreadyRegisteredException {
         verifyIfIsAlreadyRegistered(bierDTO.getName());
         Bier bier = bierMapper.toModel(bierDTO);
+        bier.setChangeSeq(changeSequencer.next());
         Bier savedBier = bierRepository.save(bier);
-        return bierMapper.toDTO(savedBier);
+        bierNameRegistry.register(savedBier.getName(), savedBier.getId());
+        return publishChange(BierChangeEvent.created(bierMapper.toDTO(savedBier), savedBier.getChangeSeq()));
     }
 
     public BierDTO findByName(String name) throws BierNotFoundException {
-        Bier foundBier = bierRepository.findByName(name)
-                .orElseThrow(() -> new BierNotFoundException(name));
-        return bierMapper.toDTO(foundBier);
+        return findVersionedByName(name).getBier();
     }
 
+    public VersionedBierDTO findVersionedByName(String name) throws BierNotFoundException {
+        verifyIfMayBeRegistered(name);
+        VersionedBierDTO foundBier = bierNameCache.get(name, key -> bierRepository.findVersionedDTOByName(key).orElse(null));
+        if (foundBier == null) {
+            throw new BierNotFoundException(name);
+        }
+        bierHotKeyTracker.recordRead(foundBier.getBier().getId());
+        return stockEngine.currentState(foundBier);
+    }
+
+    public VersionedBierDTO findVersionedByName(String name, Set<BierField> fields) throws BierNotFoundException {
+        verifyIfMayBeRegistered(name);
+        VersionedBierDTO foundBier = bierNameCache.getIfPresent(name);
+        if (foundBier == null) {
+            foundBier = bierRepository.findFieldsByName(name, fields)
+                    .orElseThrow(() -> new BierNotFoundException(name));
+        }
+        bierHotKeyTracker.recordRead(foundBier.getBier().getId());
+        return stockEngine.currentState(foundBier);
+    }
+
+    @Transactional(readOnly = true)
+    public BierLookupResultDTO lookup(BierLookupRequestDTO request) throws BierLookupTooLargeException {
+        Set<String> names = request.getNames() == null ? Set.of() : new LinkedHashSet<>(request.getNames());
+        Set<Long> ids = request.getIds() == null ? Set.of() : new LinkedHashSet<>(request.getIds());
+        int maxKeys = properties.getLookup().getMaxKeys();
+        if (names.size() + ids.size() > maxKeys) {
+            throw new BierLookupTooLargeException(names.size() + ids.size(), maxKeys);
+        }
+
+        Map<Long, BierDTO> found = new LinkedHashMap<>();
+        List<String> uncachedNames = new ArrayList<>();
+        for (String name : names) {
+            if (bierNameRegistry.isDefinitelyAbsent(name)) {
+                continue;
+            }
+            VersionedBierDTO cachedBier = bierNameCache.getIfPresent(name);
+            if (cachedBier == null) {
+                uncachedNames.add(name);
+            } else {
+                found.put(cachedBier.getBier().getId(), cachedBier.getBier());
+            }
+        }
+        if (!uncachedNames.isEmpty()) {
+            bierRepository.findDTOsByNameIn(uncachedNames).forEach(bier -> found.put(bier.getId(), bier));
+        }
+        List<Long> unresolvedIds = ids.stream()
+                .filter(id -> !found.containsKey(id))
+                .collect(Collectors.toList());
+        if (!unresolvedIds.isEmpty()) {
+            bierRepository.findDTOsByIdIn(unresolvedIds).forEach(bier -> found.put(bier.getId(), bier));
+        }
+
+        Set<String> foundNames = found.values().stream().map(BierDTO::getName).collect(Collectors.toSet());
+        List<String> missingNames = names.stream()
+                .filter(name -> !foundNames.contains(name))
+                .collect(Collectors.toList());
+        List<Long> missingIds = ids.stream()
+                .filter(id -> !found.containsKey(id))
+                .collect(Collectors.toList());
+        List<BierDTO> foundBiers = found.values().stream()
+                .map(stockEngine::currentState)
+                .collect(Collectors.toList());
+        return new BierLookupResultDTO(foundBiers, missingNames, missingIds);
+    }
+
+    public long listVersion() {
+        return changeSequencer.tableVersion();
+    }
+
+    @Transactional(readOnly = true)
     public List<BierDTO> listAll() {
-        return bierRepository.findAll()
+        return bierRepository.findAllDTOs()
+                .stream()
+                .map(stockEngine::currentState)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public BierPageDTO listPage(BierSortKey sortKey, String cursor, BierType type, String brand, Integer limit) throws InvalidBierCursorException {
+        return page(sortKey, cursor, type, brand, limit, null);
+    }
+
+    @Transactional(readOnly = true)
+    public BierFieldsPageDTO listPage(BierSortKey sortKey, String cursor, BierType type, String brand, Integer limit, Set<BierField> fields) throws InvalidBierCursorException {
+        BierPageDTO page = page(sortKey, cursor, type, brand, limit, fields);
+        List<Map<String, Object>> items = page.getItems()
+                .stream()
+                .map(bier -> BierField.select(bier, fields))
+                .collect(Collectors.toList());
+        return new BierFieldsPageDTO(items, page.getNext());
+    }
+
+    private BierPageDTO page(BierSortKey sortKey, String cursor, BierType type, String brand, Integer limit, Set<BierField> fields) throws InvalidBierCursorException {
+        BierPageCursor after = cursor == null ? null : BierPageCursor.decode(cursor);
+        BierSortKey pageSortKey = after == null ? sortKey : after.getSortKey();
+        int pageSize = resolvePageSize(limit);
+
+        List<BierDTO> biers = fields == null
+                ? bierRepository.findPage(pageSortKey, after, type, brand, pageSize + 1)
+                : bierRepository.findPage(pageSortKey, after, type, brand, pageSize + 1, fields);
+        boolean hasNext = biers.size() > pageSize;
+        List<BierDTO> items = (hasNext ? biers.subList(0, pageSize) : biers)
+                .stream()
+                .map(stockEngine::currentState)
+                .collect(Collectors.toList());
+        String next = hasNext ? BierPageCursor.after(pageSortKey, items.get(items.size() - 1)).encode() : null;
+        return new BierPageDTO(items, next);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BierDTO> listLowStock(Double threshold, Integer limit) {
+        double maxFillRatio = threshold == null ? Double.MAX_VALUE : threshold;
+        return bierRepository.findLowStock(maxFillRatio, PageRequest.of(0, resolvePageSize(limit)))
                 .stream()
-                .map(bierMapper::toDTO)
+                .map(stockEngine::currentState)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public BierChangesDTO listChanges(long since, Integer limit) {
+        long upTo = changeSequencer.highWaterMark();
+        PageRequest page = PageRequest.of(0, resolvePageSize(limit));
+        List<Bier> changed = bierRepository.findChanges(since, upTo, page);
+        List<BierTombstone> deleted = bierTombstoneRepository.findChanges(since, upTo, page);
+
+        List<BierDTO> changedBiers = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        long lastChangeSeq = since;
+        int changedIndex = 0;
+        int deletedIndex = 0;
+        while (changedIndex + deletedIndex < page.getPageSize() && (changedIndex < changed.size() || deletedIndex < deleted.size())) {
+            if (deletedIndex == deleted.size()
+                    || (changedIndex < changed.size() && changed.get(changedIndex).getChangeSeq() < deleted.get(deletedIndex).getChangeSeq())) {
+                Bier bier = changed.get(changedIndex++);
+                changedBiers.add(stockEngine.currentState(bierMapper.toDTO(bier)));
+                lastChangeSeq = bier.getChangeSeq();
+            } else {
+                BierTombstone tombstone = deleted.get(deletedIndex++);
+                deletedIds.add(tombstone.getId());
+                lastChangeSeq = tombstone.getChangeSeq();
+            }
+        }
+        long highWaterMark = changedIndex + deletedIndex < page.getPageSize() ? Math.max(since, upTo) : lastChangeSeq;
+        return new BierChangesDTO(changedBiers, deletedIds, highWaterMark);
+    }
+
+    public BierStockSummaryDTO summary() {
+        return bierStockRollup.summary();
+    }
+
+    public BierStockSummaryDTO rebuildSummary() {
+        bierStockRollup.rebuild();
+        return bierStockRollup.summary();
+    }
+
+    private int resolvePageSize(Integer limit) {
+        BiervorratProperties.Pagination pagination = properties.getPagination();
+        if (limit == null) {
+            return pagination.getDefaultLimit();
+        }
+        return Math.max(1, Math.min(limit, pagination.getMaxLimit()));
+    }
+
+    @Transactional
     public void deleteById(Long id) throws BierNotFoundException {
-        verifyIfExists(id);
+        Bier bierToDelete = verifyIfExists(id);
         bierRepository.deleteById(id);
+        long changeSeq = changeSequencer.next();
+        bierTombstoneRepository.save(new BierTombstone(id, changeSeq));
+        publishChange(BierChangeEvent.deleted(stockEngine.currentState(bierMapper.toDTO(bierToDelete)), changeSeq));
     }
 
     public void verifyIfIsAlreadyRegistered(String name) throws BierAlreadyRegisteredException {
+        if (bierNameRegistry.isDefinitelyAbsent(name)) {
+            return;
+        }
         Optional<Bier> optSavedBier = bierRepository.findByName(name);
         if(optSavedBier.isPresent()) {
             throw new BierAlreadyRegisteredException(name);
         }
     }
 
+    private void verifyIfMayBeRegistered(String name) throws BierNotFoundException {
+        if (bierNameRegistry.isDefinitelyAbsent(name)) {
+            throw new BierNotFoundException(name);
+        }
+    }
+
     private Bier verifyIfExists(Long id) throws BierNotFoundException {
         return bierRepository.findById(id)
                 .orElseThrow(() ->new BierNotFoundException(id));
     }
 
     public BierDTO increment(Long id, int quantityToIncrement) throws BierNotFoundException, BierStockExceededException {
-        Bier bierToIncrementStock = verifyIfExists(id);
-        int quantityAfterIncrement = quantityToIncrement + bierToIncrementStock.getQuantity();
-        if (quantityAfterIncrement <= bierToIncrementStock.getMax()) {
-            bierToIncrementStock.setQuantity(bierToIncrementStock.getQuantity() + quantityToIncrement);
-            Bier incrementedBeerStock = bierRepository.save(bierToIncrementStock);
-            return bierMapper.toDTO(incrementedBeerStock);
-        }
-        throw new BierStockExceededException(id, quantityToIncrement);
+        bierHotKeyTracker.recordMutation(id);
+        return stockEngine.adjust(id, quantityToIncrement);
     }
 
     public BierDTO decrement(Long id, int quantityToDecrement) throws BierNotFoundException, BierStockExceededException {
-        Bier beerToDecrementStock = verifyIfExists(id);
-        int beerStockAfterDecremented = beerToDecrementStock.getQuantity() - quantityToDecrement;
-        if (beerStockAfterDecremented >= 0) {
-            beerToDecrementStock.setQuantity(beerStockAfterDecremented);
-            Bier decrementedBeerStock = bierRepository.save(beerToDecrementStock);
-            return bierMapper.toDTO(decrementedBeerStock);
-        }
-        throw new BierStockExceededException(id, quantityToDecrement);
+        bierHotKeyTracker.recordMutation(id);
+        return stockEngine.adjust(id, -quantityToDecrement);
+    }
+
+    public CompletableFuture<BierDTO> incrementAsync(Long id, int quantityToIncrement) {
+        bierHotKeyTracker.recordMutation(id);
+        return stockEngine.adjustAsync(id, quantityToIncrement);
+    }
+
+    public CompletableFuture<BierDTO> decrementAsync(Long id, int quantityToDecrement) {
+        bierHotKeyTracker.recordMutation(id);
+        return stockEngine.adjustAsync(id, -quantityToDecrement);
+    }
+
+    public VersionedBierDTO incrementIfCurrent(Long id, int quantityToIncrement, long expectedVersion) throws BierNotFoundException, BierStockExceededException, BierVersionMismatchException {
+        bierHotKeyTracker.recordMutation(id);
+        return stockEngine.adjustIfCurrent(id, quantityToIncrement, expectedVersion);
+    }
+
+    public VersionedBierDTO decrementIfCurrent(Long id, int quantityToDecrement, long expectedVersion) throws BierNotFoundException, BierStockExceededException, BierVersionMismatchException {
+        bierHotKeyTracker.recordMutation(id);
+        return stockEngine.adjustIfCurrent(id, -quantityToDecrement, expectedVersion);
+    }
+
+    public List<StockAdjustmentResultDTO> adjustStock(List<StockAdjustmentDTO> adjustments, StockAdjustmentMode mode) throws BierNotFoundException, BierStockExceededException {
+        adjustments.forEach(adjustment -> bierHotKeyTracker.recordMutation(adjustment.getId()));
+        return stockEngine.adjustAll(adjustments, mode);
+    }
+
+    private BierDTO publishChange(BierChangeEvent change) {
+        eventPublisher.publishEvent(change);
+        return change.getBier();
     }
 }
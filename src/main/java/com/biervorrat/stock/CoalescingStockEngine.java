@@ -0,0 +1,257 @@
+package com.biervorrat.stock;
+
+import com.biervorrat.changes.ChangeSequencer;
+import com.biervorrat.config.BiervorratProperties;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.StockAdjustmentDTO;
+import com.biervorrat.dto.StockAdjustmentResultDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.entity.Bier;
+import com.biervorrat.enums.StockAdjustmentMode;
+import com.biervorrat.event.BierChangeEvent;
+import com.biervorrat.exception.BierNotFoundException;
+import com.biervorrat.exception.BierStockExceededException;
+import com.biervorrat.exception.BierVersionMismatchException;
+import com.biervorrat.mapper.BierMapper;
+import com.biervorrat.repository.BierRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges single adjustments that arrive for the same bier within a short window into one locked
+ * read and one UPDATE. Deltas are checked in arrival order, so every caller still gets its own outcome.
+ */
+@Primary
+@Component
+@ConditionalOnProperty(prefix = "biervorrat.stock", name = "mode", havingValue = "coalescing")
+public class CoalescingStockEngine implements StockEngine {
+
+    private final SynchronousStockEngine delegate;
+    private final BierRepository bierRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeSequencer changeSequencer;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSizes;
+    private final BierMapper bierMapper = BierMapper.INSTANCE;
+    private final Map<Long, AdjustmentBatch> batches = new ConcurrentHashMap<>();
+
+    public CoalescingStockEngine(SynchronousStockEngine delegate,
+                                 BierRepository bierRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ChangeSequencer changeSequencer,
+                                 BiervorratProperties properties,
+                                 MeterRegistry meterRegistry) {
+        BiervorratProperties.Coalescing coalescing = properties.getStock().getCoalescing();
+        this.delegate = delegate;
+        this.bierRepository = bierRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.changeSequencer = changeSequencer;
+        this.windowNanos = coalescing.getWindow().toNanos();
+        this.maxBatchSize = coalescing.getMaxBatchSize();
+        this.batchSizes = DistributionSummary.builder("biers.stock.coalescing.batch.size")
+                .description("Stock adjustments merged into a single database update")
+                .register(meterRegistry);
+        Gauge.builder("biers.stock.coalescing.ratio", batchSizes, DistributionSummary::mean)
+                .description("Average number of adjustments per database update")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public BierDTO adjust(Long id, int delta) throws BierNotFoundException, BierStockExceededException {
+        PendingAdjustment adjustment = new PendingAdjustment(delta);
+        AdjustmentBatch batch = batches.compute(id, (key, current) ->
+                current != null && current.offer(adjustment) ? current : new AdjustmentBatch(key, current, adjustment, maxBatchSize));
+        if (batch.isLedBy(adjustment)) {
+            lead(batch);
+        }
+        return adjustment.await();
+    }
+
+    @Override
+    public List<StockAdjustmentResultDTO> adjustAll(List<StockAdjustmentDTO> adjustments, StockAdjustmentMode mode) throws BierNotFoundException, BierStockExceededException {
+        return delegate.adjustAll(adjustments, mode);
+    }
+
+    @Override
+    public VersionedBierDTO adjustIfCurrent(Long id, int delta, long expectedVersion) throws BierNotFoundException, BierStockExceededException, BierVersionMismatchException {
+        return delegate.adjustIfCurrent(id, delta, expectedVersion);
+    }
+
+    private void lead(AdjustmentBatch batch) {
+        try {
+            batch.awaitWindow(windowNanos);
+            List<PendingAdjustment> adjustments = batch.close();
+            batch.awaitPredecessor();
+            batchSizes.record(adjustments.size());
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyInArrivalOrder(batch.getId(), adjustments));
+                adjustments.forEach(PendingAdjustment::complete);
+            } catch (RuntimeException e) {
+                adjustments.forEach(adjustment -> adjustment.fail(e));
+            }
+        } finally {
+            batch.markDone();
+            batches.remove(batch.getId(), batch);
+        }
+    }
+
+    private void applyInArrivalOrder(Long id, List<PendingAdjustment> adjustments) {
+        List<Bier> found = bierRepository.findAllByIdInForUpdate(Collections.singleton(id));
+        if (found.isEmpty()) {
+            adjustments.forEach(adjustment -> adjustment.reject(new BierNotFoundException(id)));
+            return;
+        }
+        Bier bier = found.get(0);
+        int appliedDelta = 0;
+        boolean changed = false;
+        for (PendingAdjustment adjustment : adjustments) {
+            int quantity = bier.getQuantity() + adjustment.getDelta();
+            if (!StockAdjustments.isWithinBounds(quantity, bier.getMax())) {
+                adjustment.reject(new BierStockExceededException(id, Math.abs(adjustment.getDelta())));
+                continue;
+            }
+            bier.setQuantity(quantity);
+            adjustment.accept(bierMapper.toDTO(bier));
+            appliedDelta += adjustment.getDelta();
+            changed = true;
+        }
+        if (changed) {
+            bier.setChangeSeq(changeSequencer.next());
+            eventPublisher.publishEvent(BierChangeEvent.quantityChanged(bierMapper.toDTO(bier), appliedDelta, bier.getChangeSeq()));
+        }
+    }
+
+    private static final class AdjustmentBatch {
+
+        private final Long id;
+        private final int maxSize;
+        private final List<PendingAdjustment> adjustments = new ArrayList<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private AdjustmentBatch predecessor;
+        private boolean closed;
+
+        private AdjustmentBatch(Long id, AdjustmentBatch predecessor, PendingAdjustment leader, int maxSize) {
+            this.id = id;
+            this.predecessor = predecessor;
+            this.maxSize = maxSize;
+            offer(leader);
+        }
+
+        private Long getId() {
+            return id;
+        }
+
+        private synchronized boolean offer(PendingAdjustment adjustment) {
+            if (closed || adjustments.size() >= maxSize) {
+                return false;
+            }
+            adjustments.add(adjustment);
+            if (adjustments.size() >= maxSize) {
+                full.countDown();
+            }
+            return true;
+        }
+
+        private synchronized boolean isLedBy(PendingAdjustment adjustment) {
+            return adjustments.get(0) == adjustment;
+        }
+
+        private synchronized List<PendingAdjustment> close() {
+            closed = true;
+            return new ArrayList<>(adjustments);
+        }
+
+        private void awaitWindow(long windowNanos) {
+            awaitQuietly(full, windowNanos);
+        }
+
+        private void awaitPredecessor() {
+            if (predecessor != null) {
+                awaitQuietly(predecessor.done, Long.MAX_VALUE);
+                predecessor = null;
+            }
+        }
+
+        private void markDone() {
+            done.countDown();
+        }
+
+        private static void awaitQuietly(CountDownLatch latch, long timeoutNanos) {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        latch.await(timeoutNanos, TimeUnit.NANOSECONDS);
+                        return;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private static final class PendingAdjustment {
+
+        private final int delta;
+        private final CompletableFuture<BierDTO> result = new CompletableFuture<>();
+        private BierDTO outcome;
+        private Exception rejection;
+
+        private PendingAdjustment(int delta) {
+            this.delta = delta;
+        }
+
+        private int getDelta() {
+            return delta;
+        }
+
+        private void accept(BierDTO bierDTO) {
+            outcome = bierDTO;
+        }
+
+        private void reject(Exception exception) {
+            rejection = exception;
+        }
+
+        private void complete() {
+            if (rejection != null) {
+                result.completeExceptionally(rejection);
+            } else {
+                result.complete(outcome);
+            }
+        }
+
+        private void fail(RuntimeException exception) {
+            result.completeExceptionally(exception);
+        }
+
+        private BierDTO await() throws BierNotFoundException, BierStockExceededException {
+            return StockAdjustments.await(result);
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.biervorrat.stock;
+
+import com.biervorrat.changes.ChangeSequencer;
+import com.biervorrat.config.BiervorratProperties;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.StockAdjustmentDTO;
+import com.biervorrat.dto.StockAdjustmentResultDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.enums.BierChangeType;
+import com.biervorrat.enums.StockAdjustmentMode;
+import com.biervorrat.enums.StockAdjustmentStatus;
+import com.biervorrat.event.BierChangeEvent;
+import com.biervorrat.exception.BierNotFoundException;
+import com.biervorrat.exception.BierStockExceededException;
+import com.biervorrat.exception.BierVersionMismatchException;
+import com.biervorrat.mapper.BierMapper;
+import com.biervorrat.repository.BierRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps quantities in memory and persists changed rows in periodic batches. Single adjustments are
+ * lock-free; ALL_OR_NOTHING batches and consistent reads briefly take the ledger exclusively, and
+ * every adjustment publishes its change before giving the ledger up, so such a read never sees a
+ * quantity whose change event is still to come.
+ * Each cell counts its own changes next to the quantity, and that count serves as the bier's version.
+ * Cells loaded at startup count from the boot epoch so versions never repeat across restarts. Cells
+ * created later count from the stored change sequence, or from above the last version of every
+ * deleted bier when that is higher, so a name deleted and created again never reuses a version.
+ * Only the flush takes a change sequence.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "biervorrat.stock", name = "mode", havingValue = "ledger")
+public class LedgerStockEngine implements StockEngine {
+
+    private final BierRepository bierRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeSequencer changeSequencer;
+    private final Duration flushInterval;
+    private final BierMapper bierMapper = BierMapper.INSTANCE;
+    private final Map<Long, StockCell> cells = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyIds = ConcurrentHashMap.newKeySet();
+    private final AtomicLong retiredVersion = new AtomicLong();
+    private final ReadWriteLock batchLock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-ledger-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LedgerStockEngine(BierRepository bierRepository,
+                             TransactionTemplate transactionTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             ChangeSequencer changeSequencer,
+                             BiervorratProperties properties) {
+        this.bierRepository = bierRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.changeSequencer = changeSequencer;
+        this.flushInterval = properties.getStock().getFlushInterval();
+    }
+
+    @PostConstruct
+    public void start() {
+        long epoch = changeSequencer.epoch();
+        bierRepository.findAllDTOs().forEach(bierDTO -> cells.put(bierDTO.getId(), new StockCell(bierDTO, epoch)));
+        long intervalMillis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(flushInterval.toMillis() * 2, TimeUnit.MILLISECONDS);
+        flush();
+    }
+
+    @Override
+    public BierDTO adjust(Long id, int delta) throws BierNotFoundException, BierStockExceededException {
+        BierChangeEvent change;
+        Lock lock = batchLock.readLock();
+        lock.lock();
+        try {
+            StockCell cell = verifyIfExists(id);
+            long state = cell.tryAdd(delta);
+            if (state == StockCell.OUT_OF_BOUNDS) {
+                throw new BierStockExceededException(id, Math.abs(delta));
+            }
+            dirtyIds.add(id);
+            change = BierChangeEvent.quantityChanged(cell.toDTO(StockCell.quantityOf(state)), delta);
+            changeSequencer.recordApplied();
+            eventPublisher.publishEvent(change);
+        } finally {
+            lock.unlock();
+        }
+        return change.getBier();
+    }
+
+    @Override
+    public VersionedBierDTO adjustIfCurrent(Long id, int delta, long expectedVersion) throws BierNotFoundException, BierStockExceededException, BierVersionMismatchException {
+        BierChangeEvent change;
+        long version;
+        Lock lock = batchLock.readLock();
+        lock.lock();
+        try {
+            StockCell cell = verifyIfExists(id);
+            long current;
+            long next;
+            do {
+                current = cell.state.get();
+                if (cell.versionOf(current) != expectedVersion) {
+                    throw new BierVersionMismatchException(id, expectedVersion);
+                }
+                if (!StockAdjustments.isWithinBounds(StockCell.quantityOf(current) + delta, cell.getMax())) {
+                    throw new BierStockExceededException(id, Math.abs(delta));
+                }
+                next = StockCell.added(current, delta);
+            } while (!cell.state.compareAndSet(current, next));
+            dirtyIds.add(id);
+            version = cell.versionOf(next);
+            change = BierChangeEvent.quantityChanged(cell.toDTO(StockCell.quantityOf(next)), delta);
+            changeSequencer.recordApplied();
+            eventPublisher.publishEvent(change);
+        } finally {
+            lock.unlock();
+        }
+        return new VersionedBierDTO(change.getBier(), version);
+    }
+
+    @Override
+    public List<StockAdjustmentResultDTO> adjustAll(List<StockAdjustmentDTO> adjustments, StockAdjustmentMode mode) throws BierNotFoundException, BierStockExceededException {
+        Map<Long, BierChangeEvent> changes = new LinkedHashMap<>();
+        List<StockAdjustmentResultDTO> results;
+        Lock lock = mode == StockAdjustmentMode.ALL_OR_NOTHING ? batchLock.writeLock() : batchLock.readLock();
+        lock.lock();
+        try {
+            results = mode == StockAdjustmentMode.ALL_OR_NOTHING
+                    ? applyAllOrNothing(adjustments, changes)
+                    : applyBestEffort(adjustments, changes);
+            if (!changes.isEmpty()) {
+                changeSequencer.recordApplied();
+            }
+            changes.values().forEach(eventPublisher::publishEvent);
+        } finally {
+            lock.unlock();
+        }
+        return results;
+    }
+
+    @Override
+    public void readConsistently(Runnable read) {
+        Lock lock = batchLock.writeLock();
+        lock.lock();
+        try {
+            read.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public BierDTO currentState(BierDTO bierDTO) {
+        StockCell cell = cells.get(bierDTO.getId());
+        return cell == null ? bierDTO : cell.toDTO(cell.quantity());
+    }
+
+    @Override
+    public VersionedBierDTO currentState(VersionedBierDTO versionedBier) {
+        StockCell cell = cells.get(versionedBier.getBier().getId());
+        if (cell == null) {
+            return new VersionedBierDTO(versionedBier.getBier(), baseVersionOf(versionedBier.getVersion()));
+        }
+        long state = cell.state.get();
+        return new VersionedBierDTO(cell.toDTO(StockCell.quantityOf(state)), cell.versionOf(state));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBierChange(BierChangeEvent event) {
+        if (event.getType() == BierChangeType.DELETED) {
+            StockCell cell = cells.remove(event.getBier().getId());
+            dirtyIds.remove(event.getBier().getId());
+            long lastVersion = cell == null ? baseVersionOf(event.getChangeSeq()) : cell.versionOf(cell.state.get());
+            retiredVersion.accumulateAndGet(lastVersion + 1, Math::max);
+        }
+    }
+
+    public void flush() {
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> iterator = dirtyIds.iterator(); iterator.hasNext(); ) {
+            ids.add(iterator.next());
+            iterator.remove();
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> bierRepository.findAllById(ids).forEach(bier -> {
+                StockCell cell = cells.get(bier.getId());
+                if (cell != null && bier.getQuantity() != cell.quantity()) {
+                    bier.setQuantity(cell.quantity());
+                    bier.setChangeSeq(changeSequencer.next());
+                }
+            }));
+        } catch (RuntimeException e) {
+            dirtyIds.addAll(ids);
+            throw e;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Stock ledger flush failed, changed rows will be retried on the next flush", e);
+        }
+    }
+
+    private List<StockAdjustmentResultDTO> applyAllOrNothing(List<StockAdjustmentDTO> adjustments, Map<Long, BierChangeEvent> changes) throws BierNotFoundException, BierStockExceededException {
+        Map<Long, StockCell> adjustedCells = new HashMap<>();
+        Map<Long, Integer> quantities = new HashMap<>();
+        List<StockAdjustmentResultDTO> results = new ArrayList<>(adjustments.size());
+        for (StockAdjustmentDTO adjustment : adjustments) {
+            StockCell cell = verifyIfExists(adjustment.getId());
+            int quantity = quantities.getOrDefault(adjustment.getId(), cell.quantity()) + adjustment.getDelta();
+            if (!StockAdjustments.isWithinBounds(quantity, cell.getMax())) {
+                throw new BierStockExceededException(adjustment.getId(), Math.abs(adjustment.getDelta()));
+            }
+            adjustedCells.put(adjustment.getId(), cell);
+            quantities.put(adjustment.getId(), quantity);
+            results.add(new StockAdjustmentResultDTO(adjustment.getId(), adjustment.getDelta(), StockAdjustmentStatus.APPLIED, quantity));
+        }
+        quantities.forEach((id, quantity) -> {
+            StockCell cell = adjustedCells.get(id);
+            int delta = quantity - cell.quantity();
+            cell.tryAdd(delta);
+            dirtyIds.add(id);
+            changes.put(id, BierChangeEvent.quantityChanged(cell.toDTO(quantity), delta));
+        });
+        return results;
+    }
+
+    private List<StockAdjustmentResultDTO> applyBestEffort(List<StockAdjustmentDTO> adjustments, Map<Long, BierChangeEvent> changes) {
+        List<StockAdjustmentResultDTO> results = new ArrayList<>(adjustments.size());
+        for (StockAdjustmentDTO adjustment : adjustments) {
+            StockCell cell = findCell(adjustment.getId());
+            if (cell == null) {
+                results.add(new StockAdjustmentResultDTO(adjustment.getId(), adjustment.getDelta(), StockAdjustmentStatus.NOT_FOUND, null));
+                continue;
+            }
+            long state = cell.tryAdd(adjustment.getDelta());
+            if (state == StockCell.OUT_OF_BOUNDS) {
+                results.add(new StockAdjustmentResultDTO(adjustment.getId(), adjustment.getDelta(), StockAdjustmentStatus.STOCK_EXCEEDED, cell.quantity()));
+                continue;
+            }
+            dirtyIds.add(adjustment.getId());
+            changes.merge(adjustment.getId(), BierChangeEvent.quantityChanged(cell.toDTO(StockCell.quantityOf(state)), adjustment.getDelta()),
+                    (previous, next) -> BierChangeEvent.quantityChanged(next.getBier(), previous.getQuantityDelta() + next.getQuantityDelta()));
+            results.add(new StockAdjustmentResultDTO(adjustment.getId(), adjustment.getDelta(), StockAdjustmentStatus.APPLIED, StockCell.quantityOf(state)));
+        }
+        return results;
+    }
+
+    private StockCell verifyIfExists(Long id) throws BierNotFoundException {
+        StockCell cell = findCell(id);
+        if (cell == null) {
+            throw new BierNotFoundException(id);
+        }
+        return cell;
+    }
+
+    private StockCell findCell(Long id) {
+        return cells.computeIfAbsent(id, key -> bierRepository.findById(key)
+                .map(bier -> new StockCell(bierMapper.toDTO(bier), baseVersionOf(bier.getChangeSeq())))
+                .orElse(null));
+    }
+
+    private long baseVersionOf(long changeSeq) {
+        return Math.max(changeSeq, retiredVersion.get());
+    }
+
+    /**
+     * Quantity in the low half of one long and the number of changes since the cell was created in
+     * the high half, so both move together with a single CAS.
+     */
+    private static final class StockCell {
+
+        private static final long OUT_OF_BOUNDS = -1L;
+        private static final long QUANTITY_MASK = 0xFFFFFFFFL;
+
+        private final BierDTO bier;
+        private final long baseVersion;
+        private final AtomicLong state;
+
+        private StockCell(BierDTO bier, long baseVersion) {
+            this.bier = bier;
+            this.baseVersion = baseVersion;
+            this.state = new AtomicLong(bier.getQuantity());
+        }
+
+        private long tryAdd(int delta) {
+            long current;
+            long next;
+            do {
+                current = state.get();
+                if (!StockAdjustments.isWithinBounds(quantityOf(current) + delta, bier.getMax())) {
+                    return OUT_OF_BOUNDS;
+                }
+                next = added(current, delta);
+            } while (!state.compareAndSet(current, next));
+            return next;
+        }
+
+        private static long added(long current, int delta) {
+            long changes = (current >>> 32) + 1;
+            return changes << 32 | (quantityOf(current) + delta) & QUANTITY_MASK;
+        }
+
+        private static int quantityOf(long state) {
+            return (int) state;
+        }
+
+        private long versionOf(long state) {
+            return baseVersion + (state >>> 32);
+        }
+
+        private int quantity() {
+            return quantityOf(state.get());
+        }
+
+        private int getMax() {
+            return bier.getMax();
+        }
+
+        private BierDTO toDTO(int currentQuantity) {
+            return new BierDTO(bier.getId(), bier.getName(), bier.getBrand(), bier.getMax(), currentQuantity, bier.getType());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.biervorrat.stock;
+
+import com.biervorrat.dto.StockAdjustmentDTO;
+import com.biervorrat.enums.StockAdjustmentStatus;
+import com.biervorrat.exception.BierNotFoundException;
+import com.biervorrat.exception.BierStockExceededException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+final class StockAdjustments {
+
+    private StockAdjustments() {
+    }
+
+    static boolean isWithinBounds(int quantity, int max) {
+        return quantity >= 0 && quantity <= max;
+    }
+
+    static void verifyApplied(StockAdjustmentDTO adjustment, StockAdjustmentStatus status) throws BierNotFoundException, BierStockExceededException {
+        if (status == StockAdjustmentStatus.NOT_FOUND) {
+            throw new BierNotFoundException(adjustment.getId());
+        }
+        if (status == StockAdjustmentStatus.STOCK_EXCEEDED) {
+            throw new BierStockExceededException(adjustment.getId(), Math.abs(adjustment.getDelta()));
+        }
+    }
+
+    static <T> T await(CompletableFuture<T> result) throws BierNotFoundException, BierStockExceededException {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof BierNotFoundException) {
+                throw (BierNotFoundException) cause;
+            }
+            if (cause instanceof BierStockExceededException) {
+                throw (BierStockExceededException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+}
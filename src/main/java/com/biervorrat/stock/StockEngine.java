@@ -0,0 +1,46 @@
+package com.biervorrat.stock;
+
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.StockAdjustmentDTO;
+import com.biervorrat.dto.StockAdjustmentResultDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.enums.StockAdjustmentMode;
+import com.biervorrat.exception.BierNotFoundException;
+import com.biervorrat.exception.BierStockExceededException;
+import com.biervorrat.exception.BierVersionMismatchException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface StockEngine {
+
+    BierDTO adjust(Long id, int delta) throws BierNotFoundException, BierStockExceededException;
+
+    List<StockAdjustmentResultDTO> adjustAll(List<StockAdjustmentDTO> adjustments, StockAdjustmentMode mode) throws BierNotFoundException, BierStockExceededException;
+
+    VersionedBierDTO adjustIfCurrent(Long id, int delta, long expectedVersion) throws BierNotFoundException, BierStockExceededException, BierVersionMismatchException;
+
+    default CompletableFuture<BierDTO> adjustAsync(Long id, int delta) {
+        try {
+            return CompletableFuture.completedFuture(adjust(id, delta));
+        } catch (BierNotFoundException | BierStockExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Runs a read of current states while no adjustment is halfway between changing a quantity and
+     * publishing its change event.
+     */
+    default void readConsistently(Runnable read) {
+        read.run();
+    }
+
+    default BierDTO currentState(BierDTO bierDTO) {
+        return bierDTO;
+    }
+
+    default VersionedBierDTO currentState(VersionedBierDTO versionedBier) {
+        return versionedBier;
+    }
+}
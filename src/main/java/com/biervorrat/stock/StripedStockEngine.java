@@ -0,0 +1,201 @@
+package com.biervorrat.stock;
+
+import com.biervorrat.config.BiervorratProperties;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.StockAdjustmentDTO;
+import com.biervorrat.dto.StockAdjustmentResultDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.enums.StockAdjustmentMode;
+import com.biervorrat.exception.BierNotFoundException;
+import com.biervorrat.exception.BierStockExceededException;
+import com.biervorrat.exception.BierVersionMismatchException;
+import com.biervorrat.exception.StockStripeSaturatedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Routes every adjustment of a bier to one of N single-threaded stripes chosen by id, so each bier
+ * has exactly one writer. Asynchronous callers are rejected when a stripe queue is full; synchronous
+ * callers wait for room instead. A batch parks the writer of every stripe it touches, queued behind
+ * what those stripes already hold, and runs while they wait; batches enqueue their parking one at a
+ * time so two of them never park overlapping stripes in opposite orders.
+ */
+@Primary
+@Component
+@ConditionalOnProperty(prefix = "biervorrat.stock", name = "mode", havingValue = "striped")
+public class StripedStockEngine implements StockEngine {
+
+    private final SynchronousStockEngine delegate;
+    private final TaskDecorator taskDecorator;
+    private final StockStripe[] stripes;
+    private final Counter rejections;
+    private final Object batchOrder = new Object();
+
+    public StripedStockEngine(SynchronousStockEngine delegate, TaskDecorator taskDecorator, BiervorratProperties properties, MeterRegistry meterRegistry) {
+        BiervorratProperties.Striping striping = properties.getStock().getStriping();
+        this.delegate = delegate;
+        this.taskDecorator = taskDecorator;
+        this.stripes = new StockStripe[striping.getStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            StockStripe stripe = new StockStripe(i, striping.getQueueCapacity());
+            Gauge.builder("biers.stock.stripe.queue.depth", stripe, StockStripe::depth)
+                    .description("Stock adjustments waiting for the stripe writer")
+                    .tag("stripe", String.valueOf(i))
+                    .register(meterRegistry);
+            stripes[i] = stripe;
+        }
+        this.rejections = Counter.builder("biers.stock.stripe.rejected")
+                .description("Stock adjustments rejected because the stripe queue was full")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public BierDTO adjust(Long id, int delta) throws BierNotFoundException, BierStockExceededException {
+        CompletableFuture<BierDTO> result = new CompletableFuture<>();
+        put(id, task(() -> delegate.adjust(id, delta), result));
+        return StockAdjustments.await(result);
+    }
+
+    @Override
+    public CompletableFuture<BierDTO> adjustAsync(Long id, int delta) {
+        CompletableFuture<BierDTO> result = new CompletableFuture<>();
+        if (!stripeOf(id).offer(task(() -> delegate.adjust(id, delta), result))) {
+            rejections.increment();
+            result.completeExceptionally(new StockStripeSaturatedException(id));
+        }
+        return result;
+    }
+
+    @Override
+    public List<StockAdjustmentResultDTO> adjustAll(List<StockAdjustmentDTO> adjustments, StockAdjustmentMode mode) throws BierNotFoundException, BierStockExceededException {
+        Set<StockStripe> touched = new LinkedHashSet<>();
+        adjustments.forEach(adjustment -> touched.add(stripeOf(adjustment.getId())));
+        CountDownLatch parked = new CountDownLatch(touched.size());
+        CountDownLatch applied = new CountDownLatch(1);
+        Runnable park = () -> {
+            parked.countDown();
+            try {
+                applied.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        try {
+            synchronized (batchOrder) {
+                for (StockStripe stripe : touched) {
+                    stripe.put(park);
+                }
+            }
+            parked.await();
+            return delegate.adjustAll(adjustments, mode);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the stock stripes of a batch", e);
+        } finally {
+            applied.countDown();
+        }
+    }
+
+    @Override
+    public VersionedBierDTO adjustIfCurrent(Long id, int delta, long expectedVersion) throws BierNotFoundException, BierStockExceededException, BierVersionMismatchException {
+        CompletableFuture<VersionedBierDTO> result = new CompletableFuture<>();
+        put(id, task(() -> delegate.adjustIfCurrent(id, delta, expectedVersion), result));
+        try {
+            return StockAdjustments.await(result);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BierVersionMismatchException) {
+                throw (BierVersionMismatchException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (StockStripe stripe : stripes) {
+            stripe.stop();
+        }
+    }
+
+    private StockStripe stripeOf(Long id) {
+        return stripes[Math.floorMod(Long.hashCode(id), stripes.length)];
+    }
+
+    private void put(Long id, Runnable task) {
+        try {
+            stripeOf(id).put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the stock stripe of bier " + id, e);
+        }
+    }
+
+    private <T> Runnable task(Callable<T> adjustment, CompletableFuture<T> result) {
+        return taskDecorator.decorate(() -> {
+            try {
+                result.complete(adjustment.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    private static final class StockStripe {
+
+        private static final Runnable STOP = () -> {
+        };
+
+        private final BlockingQueue<Runnable> queue;
+        private final Thread writer;
+
+        private StockStripe(int index, int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.writer = new Thread(this::drain, "stock-stripe-" + index);
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+
+        private void put(Runnable task) throws InterruptedException {
+            queue.put(task);
+        }
+
+        private boolean offer(Runnable task) {
+            return queue.offer(task);
+        }
+
+        private int depth() {
+            return queue.size();
+        }
+
+        private void stop() throws InterruptedException {
+            queue.put(STOP);
+            writer.join();
+        }
+
+        private void drain() {
+            try {
+                for (Runnable task = queue.take(); task != STOP; task = queue.take()) {
+                    task.run();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
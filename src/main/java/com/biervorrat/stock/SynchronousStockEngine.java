@@ -0,0 +1,127 @@
+package com.biervorrat.stock;
+
+import com.biervorrat.changes.ChangeSequencer;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.StockAdjustmentDTO;
+import com.biervorrat.dto.StockAdjustmentResultDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.entity.Bier;
+import com.biervorrat.enums.StockAdjustmentMode;
+import com.biervorrat.enums.StockAdjustmentStatus;
+import com.biervorrat.event.BierChangeEvent;
+import com.biervorrat.exception.BierNotFoundException;
+import com.biervorrat.exception.BierStockExceededException;
+import com.biervorrat.exception.BierVersionMismatchException;
+import com.biervorrat.mapper.BierMapper;
+import com.biervorrat.repository.BierRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnExpression("!'${biervorrat.stock.mode:sync}'.equalsIgnoreCase('ledger')")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class SynchronousStockEngine implements StockEngine {
+
+    private final BierRepository bierRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeSequencer changeSequencer;
+    private final BierMapper bierMapper = BierMapper.INSTANCE;
+
+    @Override
+    @Transactional
+    public BierDTO adjust(Long id, int delta) throws BierNotFoundException, BierStockExceededException {
+        int updatedRows = bierRepository.adjustQuantity(id, delta, changeSequencer.next());
+        if (updatedRows == 0) {
+            verifyIfExists(id);
+            throw new BierStockExceededException(id, Math.abs(delta));
+        }
+        return publishQuantityChange(verifyIfExists(id), delta);
+    }
+
+    @Override
+    @Transactional
+    public CompletableFuture<BierDTO> adjustAsync(Long id, int delta) {
+        return StockEngine.super.adjustAsync(id, delta);
+    }
+
+    @Override
+    @Transactional
+    public VersionedBierDTO adjustIfCurrent(Long id, int delta, long expectedVersion) throws BierNotFoundException, BierStockExceededException, BierVersionMismatchException {
+        long changeSeq = changeSequencer.next();
+        int updatedRows = bierRepository.adjustQuantityIfCurrent(id, delta, expectedVersion, changeSeq);
+        if (updatedRows == 0) {
+            if (verifyIfExists(id).getChangeSeq() != expectedVersion) {
+                throw new BierVersionMismatchException(id, expectedVersion);
+            }
+            throw new BierStockExceededException(id, Math.abs(delta));
+        }
+        return new VersionedBierDTO(publishQuantityChange(verifyIfExists(id), delta), changeSeq);
+    }
+
+    @Override
+    @Transactional(rollbackFor = {BierNotFoundException.class, BierStockExceededException.class})
+    public List<StockAdjustmentResultDTO> adjustAll(List<StockAdjustmentDTO> adjustments, StockAdjustmentMode mode) throws BierNotFoundException, BierStockExceededException {
+        Set<Long> ids = adjustments.stream()
+                .map(StockAdjustmentDTO::getId)
+                .collect(Collectors.toSet());
+        Map<Long, Bier> biersById = bierRepository.findAllByIdInForUpdate(ids)
+                .stream()
+                .collect(Collectors.toMap(Bier::getId, Function.identity()));
+
+        List<StockAdjustmentResultDTO> results = new ArrayList<>(adjustments.size());
+        Map<Long, Integer> appliedDeltas = new LinkedHashMap<>();
+        for (StockAdjustmentDTO adjustment : adjustments) {
+            Bier bier = biersById.get(adjustment.getId());
+            StockAdjustmentStatus status = applyAdjustment(bier, adjustment.getDelta());
+            if (mode == StockAdjustmentMode.ALL_OR_NOTHING) {
+                StockAdjustments.verifyApplied(adjustment, status);
+            }
+            if (status == StockAdjustmentStatus.APPLIED) {
+                appliedDeltas.merge(bier.getId(), adjustment.getDelta(), Integer::sum);
+            }
+            Integer quantity = bier == null ? null : bier.getQuantity();
+            results.add(new StockAdjustmentResultDTO(adjustment.getId(), adjustment.getDelta(), status, quantity));
+        }
+        appliedDeltas.forEach((id, delta) -> {
+            Bier bier = biersById.get(id);
+            bier.setChangeSeq(changeSequencer.next());
+            publishQuantityChange(bier, delta);
+        });
+        return results;
+    }
+
+    private StockAdjustmentStatus applyAdjustment(Bier bier, int delta) {
+        if (bier == null) {
+            return StockAdjustmentStatus.NOT_FOUND;
+        }
+        if (!StockAdjustments.isWithinBounds(bier.getQuantity() + delta, bier.getMax())) {
+            return StockAdjustmentStatus.STOCK_EXCEEDED;
+        }
+        bier.setQuantity(bier.getQuantity() + delta);
+        return StockAdjustmentStatus.APPLIED;
+    }
+
+    private Bier verifyIfExists(Long id) throws BierNotFoundException {
+        return bierRepository.findById(id)
+                .orElseThrow(() -> new BierNotFoundException(id));
+    }
+
+    private BierDTO publishQuantityChange(Bier bier, int delta) {
+        BierDTO bierDTO = bierMapper.toDTO(bier);
+        eventPublisher.publishEvent(BierChangeEvent.quantityChanged(bierDTO, delta, bier.getChangeSeq()));
+        return bierDTO;
+    }
+}
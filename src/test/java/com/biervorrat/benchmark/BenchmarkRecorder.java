@@ -0,0 +1,78 @@
+package com.biervorrat.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class BenchmarkRecorder {
+
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final Map<String, Result> results = new LinkedHashMap<>();
+    private final int warmupIterations;
+    private final int measuredIterations;
+
+    public BenchmarkRecorder(int warmupIterations, int measuredIterations) {
+        this.warmupIterations = warmupIterations;
+        this.measuredIterations = measuredIterations;
+    }
+
+    public Result measure(String name, Runnable operation) {
+        for (int i = 0; i < warmupIterations; i++) {
+            operation.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < measuredIterations; i++) {
+            operation.run();
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        Result result = new Result(name, elapsedNanos / measuredIterations, allocatedBytes / measuredIterations);
+        results.put(name, result);
+        return result;
+    }
+
+    public Map<String, Result> results() {
+        return new LinkedHashMap<>(results);
+    }
+
+    public String report(String title) {
+        StringBuilder report = new StringBuilder(String.format("%n%s%n", title));
+        report.append(String.format("%-40s %15s %12s %18s%n", "operation", "avg latency us", "ops/s", "avg alloc bytes/op"));
+        results.values().forEach(result -> report.append(String.format("%-40s %15.1f %12.0f %18d%n",
+                result.getName(), result.getNanosPerOperation() / 1000.0, result.getOperationsPerSecond(), result.getBytesPerOperation())));
+        return report.toString();
+    }
+
+    public static class Result {
+
+        private final String name;
+        private final long nanosPerOperation;
+        private final long bytesPerOperation;
+
+        Result(String name, long nanosPerOperation, long bytesPerOperation) {
+            this.name = name;
+            this.nanosPerOperation = nanosPerOperation;
+            this.bytesPerOperation = bytesPerOperation;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getNanosPerOperation() {
+            return nanosPerOperation;
+        }
+
+        public double getOperationsPerSecond() {
+            return nanosPerOperation == 0 ? 0 : 1_000_000_000.0 / nanosPerOperation;
+        }
+
+        public long getBytesPerOperation() {
+            return bytesPerOperation;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.biervorrat.benchmark;
+
+import com.biervorrat.cache.BierListResponseCache;
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.service.BierService;
+import com.biervorrat.utils.BierDataGenerator;
+import com.biervorrat.utils.StatementCountingDataSourceConfig;
+import com.biervorrat.utils.StatementCounts;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * The cached unpaged list serves the same bytes a fresh serialization would, without touching the
+ * database. The per-request cost it saves is measured by {@code BierListResponseBenchmark} in the
+ * jmh profile.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@Import(StatementCountingDataSourceConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class BierListResponseBenchmarkTest {
+
+    private static final int ROWS = 5_000;
+
+    @Autowired
+    private BierService bierService;
+
+    @Autowired
+    private BierListResponseCache bierListResponseCache;
+
+    @Autowired
+    private BierRepository bierRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void setUp() {
+        new BierDataGenerator(jdbcTemplate).generate(ROWS);
+    }
+
+    @AfterAll
+    void tearDown() {
+        bierRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void whenTheListIsServedFromTheCacheThenTheFreshBytesAreReturnedWithoutStatements() throws IOException {
+        byte[] serialized = objectMapper.writeValueAsBytes(bierService.listAll());
+        bierListResponseCache.current();
+
+        StatementCountingDataSourceConfig.reset();
+        BierListResponseCache.Snapshot snapshot = bierListResponseCache.current();
+        log.info("Unpaged list of {} rows: {} JSON bytes, {} gzipped", ROWS, snapshot.getJson().length, snapshot.getGzipped().length);
+
+        assertThat(StatementCountingDataSourceConfig.counts(), is(equalTo(StatementCounts.of(0, 0, 0, 0))));
+        assertThat(snapshot.getJson(), is(equalTo(serialized)));
+        assertThat(gunzip(snapshot.getGzipped()), is(equalTo(serialized)));
+        assertThat(snapshot.getGzipped().length, is(lessThan(serialized.length)));
+    }
+
+    private static byte[] gunzip(byte[] gzipped) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return gzip.readAllBytes();
+        }
+    }
+}
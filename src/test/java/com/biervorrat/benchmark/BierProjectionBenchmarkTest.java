@@ -0,0 +1,104 @@
+package com.biervorrat.benchmark;
+
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.utils.BierDataGenerator;
+import com.biervorrat.utils.StatementCountingDataSourceConfig;
+import com.biervorrat.utils.StatementCounts;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * What the DTO projections save over entity reads: nothing enters the persistence context, so there
+ * is nothing to snapshot or dirty check. Latency and allocation are measured by
+ * {@code BierProjectionBenchmark} in the jmh profile.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Import(StatementCountingDataSourceConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class BierProjectionBenchmarkTest {
+
+    private static final int ROWS = 10_000;
+    private static final String HOT_NAME = BierDataGenerator.nameOf(ROWS / 2);
+
+    @Autowired
+    private BierRepository bierRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readWriteTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeAll
+    void setUp() {
+        new BierDataGenerator(jdbcTemplate).generate(ROWS);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterAll
+    void tearDown() {
+        bierRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void whenAllBiersAreListedThroughTheProjectionThenNoEntityIsManaged() {
+        Integer managedByEntityRead = readWriteTransaction.execute(status -> {
+            assertThat(bierRepository.findAll(), hasSize(ROWS));
+            return managedEntities();
+        });
+        StatementCountingDataSourceConfig.reset();
+        Integer managedByProjection = readOnlyTransaction.execute(status -> {
+            List<BierDTO> biers = bierRepository.findAllDTOs();
+            assertThat(biers, hasSize(ROWS));
+            return managedEntities();
+        });
+
+        assertThat(managedByEntityRead, is(equalTo(ROWS)));
+        assertThat(managedByProjection, is(equalTo(0)));
+        assertThat(StatementCountingDataSourceConfig.counts(), is(equalTo(StatementCounts.of(1, 0, 0, 0))));
+    }
+
+    @Test
+    void whenABierIsFoundByNameThroughTheProjectionThenNoEntityIsManaged() {
+        StatementCountingDataSourceConfig.reset();
+        Integer managedByProjection = readOnlyTransaction.execute(status -> {
+            assertThat(bierRepository.findDTOByName(HOT_NAME).isPresent(), is(true));
+            return managedEntities();
+        });
+
+        assertThat(managedByProjection, is(equalTo(0)));
+        assertThat(StatementCountingDataSourceConfig.counts(), is(equalTo(StatementCounts.of(1, 0, 0, 0))));
+    }
+
+    private int managedEntities() {
+        return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+    }
+}
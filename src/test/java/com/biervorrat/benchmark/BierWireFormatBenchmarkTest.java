@@ -0,0 +1,59 @@
+package com.biervorrat.benchmark;
+
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.enums.BierType;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Payload sizes of a ten thousand item list per wire format. Serialization speed is measured by
+ * {@code BierWireFormatBenchmark} in the jmh profile.
+ */
+@Slf4j
+@Tag("benchmark")
+public class BierWireFormatBenchmarkTest {
+
+    private static final int ITEMS = 10_000;
+    private static final TypeReference<List<BierDTO>> BIER_LIST = new TypeReference<>() {
+    };
+
+    @Test
+    void whenATenThousandItemListIsWrittenAsCborOrSmileThenThePayloadIsSmallerThanJson() throws IOException {
+        List<BierDTO> biers = new ArrayList<>(ITEMS);
+        BierType[] types = BierType.values();
+        for (int i = 0; i < ITEMS; i++) {
+            biers.add(new BierDTO((long) i + 1, String.format("Bier-%08d", i), "Brand-" + (i % 100), 500, i % 500, types[i % types.length]));
+        }
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", new ObjectMapper());
+        mappers.put("cbor", new ObjectMapper(new CBORFactory()));
+        mappers.put("smile", new ObjectMapper(new SmileFactory()));
+
+        Map<String, Integer> payloadSizes = new LinkedHashMap<>();
+        for (Map.Entry<String, ObjectMapper> mapper : mappers.entrySet()) {
+            byte[] payload = mapper.getValue().writeValueAsBytes(biers);
+            payloadSizes.put(mapper.getKey(), payload.length);
+            assertThat(mapper.getValue().readValue(payload, BIER_LIST), is(equalTo(biers)));
+        }
+        log.info("Payload bytes for {} biers: {}", ITEMS, payloadSizes);
+
+        assertThat(payloadSizes.get("cbor"), is(lessThan(payloadSizes.get("json"))));
+        assertThat(payloadSizes.get("smile"), is(lessThan(payloadSizes.get("json"))));
+    }
+}
@@ -0,0 +1,77 @@
+package com.biervorrat.cache;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.service.BierService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BierListResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
+
+    @Mock
+    private BierService bierService;
+
+    private BierListResponseCache bierListResponseCache;
+
+    @BeforeEach
+    void setUp() {
+        bierListResponseCache = new BierListResponseCache(bierService, objectMapper);
+    }
+
+    @Test
+    void whenNothingChangedThenTheSameSerializedBytesAreServed() throws Exception {
+        when(bierService.listVersion()).thenReturn(3L);
+        when(bierService.listAll()).thenReturn(Collections.singletonList(bierDTO));
+
+        BierListResponseCache.Snapshot first = bierListResponseCache.current();
+        BierListResponseCache.Snapshot second = bierListResponseCache.current();
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(first.getJson(), is(equalTo(objectMapper.writeValueAsBytes(Collections.singletonList(bierDTO)))));
+        verify(bierService, times(1)).listAll();
+    }
+
+    @Test
+    void whenAChangeCommitsThenTheSnapshotIsRebuilt() throws Exception {
+        when(bierService.listVersion()).thenReturn(3L, 4L);
+        when(bierService.listAll()).thenReturn(Collections.emptyList(), Collections.singletonList(bierDTO));
+
+        bierListResponseCache.current();
+        BierListResponseCache.Snapshot rebuilt = bierListResponseCache.current();
+
+        assertThat(rebuilt.getVersion(), is(equalTo(4L)));
+        assertThat(rebuilt.getJson(), is(equalTo(objectMapper.writeValueAsBytes(Collections.singletonList(bierDTO)))));
+    }
+
+    @Test
+    void whenSnapshotIsBuiltThenTheGzippedBytesInflateToTheJson() throws Exception {
+        when(bierService.listVersion()).thenReturn(3L);
+        when(bierService.listAll()).thenReturn(Collections.singletonList(bierDTO));
+
+        BierListResponseCache.Snapshot snapshot = bierListResponseCache.current();
+
+        try (GZIPInputStream inflated = new GZIPInputStream(new ByteArrayInputStream(snapshot.getGzipped()))) {
+            assertThat(inflated.readAllBytes(), is(equalTo(snapshot.getJson())));
+        }
+    }
+}
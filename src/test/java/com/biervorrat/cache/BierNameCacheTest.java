@@ -0,0 +1,86 @@
+package com.biervorrat.cache;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.config.BiervorratProperties;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.event.BierChangeEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class BierNameCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
+
+    private MeterRegistry meterRegistry;
+    private BierNameCache bierNameCache;
+
+    @BeforeEach
+    void setUp() {
+        BiervorratProperties properties = new BiervorratProperties();
+        properties.getNameCache().setMaximumSize(100);
+        meterRegistry = new SimpleMeterRegistry();
+        bierNameCache = new BierNameCache(properties, meterRegistry);
+    }
+
+    @Test
+    void whenNameIsLoadedTwiceThenLoaderRunsOnceAndHitsAreCounted() {
+        bierNameCache.get(bierDTO.getName(), this::load);
+        VersionedBierDTO cachedBierDTO = bierNameCache.get(bierDTO.getName(), this::load);
+
+        assertThat(cachedBierDTO.getBier(), is(equalTo(bierDTO)));
+        assertThat(loads.get(), is(equalTo(1)));
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count(), is(equalTo(1.0)));
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count(), is(equalTo(1.0)));
+    }
+
+    @Test
+    void whenUnknownNameIsLoadedThenNothingIsCached() {
+        VersionedBierDTO missingBierDTO = bierNameCache.get("Unknown", name -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        bierNameCache.get("Unknown", name -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        assertThat(missingBierDTO, is(nullValue()));
+        assertThat(loads.get(), is(equalTo(2)));
+    }
+
+    @Test
+    void whenBierIsEvictedByIdThenTheNextLookupReloads() {
+        bierNameCache.get(bierDTO.getName(), this::load);
+
+        bierNameCache.evict(bierDTO.getId());
+        bierNameCache.get(bierDTO.getName(), this::load);
+
+        assertThat(loads.get(), is(equalTo(2)));
+    }
+
+    @Test
+    void whenBierChangeEventIsReceivedThenTheBierIsEvicted() {
+        bierNameCache.get(bierDTO.getName(), this::load);
+
+        bierNameCache.onBierChange(BierChangeEvent.quantityChanged(bierDTO, 0));
+        bierNameCache.get(bierDTO.getName(), this::load);
+
+        assertThat(loads.get(), is(equalTo(2)));
+    }
+
+    private VersionedBierDTO load(String name) {
+        loads.incrementAndGet();
+        return new VersionedBierDTO(bierDTO, 1L);
+    }
+}
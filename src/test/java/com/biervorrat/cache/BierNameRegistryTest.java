@@ -0,0 +1,123 @@
+package com.biervorrat.cache;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.config.BiervorratProperties;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.BierNameDTO;
+import com.biervorrat.event.BierChangeEvent;
+import com.biervorrat.repository.BierRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BierNameRegistryTest {
+
+    @Mock
+    private BierRepository bierRepository;
+
+    private BierNameRegistry bierNameRegistry;
+
+    @BeforeEach
+    void setUp() {
+        bierNameRegistry = new BierNameRegistry(bierRepository, new BiervorratProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void whenRegistryIsNotLoadedThenNoNameIsReportedAbsent() {
+        assertThat(bierNameRegistry.isDefinitelyAbsent("Unknown"), is(false));
+    }
+
+    @Test
+    void whenRegistryIsLoadedThenOnlyUnknownNamesAreReportedAbsent() {
+        when(bierRepository.findAllNames()).thenReturn(Collections.singletonList(new BierNameDTO(1L, "Brahma")));
+
+        bierNameRegistry.reload();
+
+        assertThat(bierNameRegistry.isDefinitelyAbsent("Brahma"), is(false));
+        assertThat(bierNameRegistry.isDefinitelyAbsent("Unknown"), is(true));
+    }
+
+    @Test
+    void whenRegistryIsInvalidatedThenNoNameIsReportedAbsent() {
+        when(bierRepository.findAllNames()).thenReturn(Collections.emptyList());
+
+        bierNameRegistry.reload();
+        bierNameRegistry.invalidate();
+
+        assertThat(bierNameRegistry.isDefinitelyAbsent("Unknown"), is(false));
+    }
+
+    @Test
+    void whenInsertIsPendingThenTheNameIsPresentUntilTheTransactionRollsBack() {
+        when(bierRepository.findAllNames()).thenReturn(Collections.emptyList());
+        bierNameRegistry.reload();
+        TransactionSynchronizationManager.initSynchronization();
+
+        bierNameRegistry.register("Brahma", 1L);
+
+        assertThat(bierNameRegistry.isDefinitelyAbsent("Brahma"), is(false));
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(bierNameRegistry.isDefinitelyAbsent("Brahma"), is(true));
+    }
+
+    @Test
+    void whenPendingInsertCommitsThenTheNameStaysRegistered() {
+        when(bierRepository.findAllNames()).thenReturn(Collections.emptyList());
+        bierNameRegistry.reload();
+        TransactionSynchronizationManager.initSynchronization();
+
+        bierNameRegistry.register("Brahma", 1L);
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(bierNameRegistry.isDefinitelyAbsent("Brahma"), is(false));
+    }
+
+    @Test
+    void whenBierIsDeletedThenItsNameIsReportedAbsent() {
+        BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        when(bierRepository.findAllNames()).thenReturn(Collections.singletonList(new BierNameDTO(bierDTO.getId(), bierDTO.getName())));
+        bierNameRegistry.reload();
+
+        bierNameRegistry.onBierChange(BierChangeEvent.deleted(bierDTO, 2L));
+
+        assertThat(bierNameRegistry.isDefinitelyAbsent(bierDTO.getName()), is(true));
+    }
+
+    @Test
+    void whenLateDeleteOfAnOlderBierArrivesThenTheRecreatedNameIsKept() {
+        BierDTO oldBierDTO = BierDTOBuilder.builder().id(1L).build().toBierDTO();
+        when(bierRepository.findAllNames()).thenReturn(Collections.emptyList());
+        bierNameRegistry.reload();
+
+        bierNameRegistry.register(oldBierDTO.getName(), 2L);
+        bierNameRegistry.onBierChange(BierChangeEvent.deleted(oldBierDTO, 3L));
+
+        assertThat(bierNameRegistry.isDefinitelyAbsent(oldBierDTO.getName()), is(false));
+    }
+
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,86 @@
+package com.biervorrat.changes;
+
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.repository.BierTombstoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ChangeSequencerTest {
+
+    @Mock
+    private BierRepository bierRepository;
+    @Mock
+    private BierTombstoneRepository bierTombstoneRepository;
+    @InjectMocks
+    private ChangeSequencer changeSequencer;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void whenSequencerStartsThenItContinuesAfterTheHighestStoredSequence() {
+        when(bierRepository.findMaxChangeSeq()).thenReturn(7L);
+        when(bierTombstoneRepository.findMaxChangeSeq()).thenReturn(9L);
+
+        changeSequencer.init();
+
+        assertThat(changeSequencer.highWaterMark(), is(equalTo(9L)));
+        assertThat(changeSequencer.next(), is(equalTo(10L)));
+    }
+
+    @Test
+    void whenAnEarlierTransactionIsStillOpenThenTheHighWaterMarkStaysBeforeIt() {
+        TransactionSynchronizationManager.initSynchronization();
+        changeSequencer.next();
+        TransactionSynchronization slowTransaction = TransactionSynchronizationManager.getSynchronizations().get(0);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.initSynchronization();
+        changeSequencer.next();
+        TransactionSynchronization fastTransaction = TransactionSynchronizationManager.getSynchronizations().get(0);
+        fastTransaction.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(changeSequencer.highWaterMark(), is(equalTo(0L)));
+
+        slowTransaction.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(changeSequencer.highWaterMark(), is(equalTo(2L)));
+    }
+
+    @Test
+    void whenSequencerRestartsThenTheTableVersionIsNeverReissued() throws InterruptedException {
+        when(bierRepository.findMaxChangeSeq()).thenReturn(7L);
+        when(bierTombstoneRepository.findMaxChangeSeq()).thenReturn(9L);
+        changeSequencer.init();
+        for (int i = 0; i < 1000; i++) {
+            changeSequencer.recordApplied();
+        }
+        long versionBeforeRestart = changeSequencer.tableVersion();
+
+        changeSequencer.init();
+        long versionAfterReload = changeSequencer.tableVersion();
+        Thread.sleep(2);
+        ChangeSequencer restarted = new ChangeSequencer(bierRepository, bierTombstoneRepository);
+        restarted.init();
+
+        assertThat(versionAfterReload, is(greaterThan(versionBeforeRestart)));
+        assertThat(restarted.tableVersion(), is(greaterThan(versionBeforeRestart)));
+    }
+}
@@ -0,0 +1,131 @@
+package com.biervorrat.controller;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.config.BinaryFormatConfig;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.QuantityDTO;
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.service.BierService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class BierContentNegotiationIntegrationTest {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/biere";
+
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BierService bierService;
+
+    @Autowired
+    private BierRepository bierRepository;
+
+    @AfterEach
+    void tearDown() {
+        bierRepository.deleteAll();
+    }
+
+    @Test
+    void whenNoBinaryFormatIsAcceptedThenJsonIsReturned() throws Exception {
+        BierDTO bierDTO = bierService.createBier(BierDTOBuilder.builder().id(null).build().toBierDTO());
+
+        mockMvc.perform(get(BEER_API_URL_PATH + "/" + bierDTO.getName()).header(HttpHeaders.ACCEPT, "*/*"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void whenCborIsAcceptedThenTheBierIsReturnedAsCbor() throws Exception {
+        BierDTO bierDTO = bierService.createBier(BierDTOBuilder.builder().id(null).build().toBierDTO());
+
+        MvcResult result = mockMvc.perform(get(BEER_API_URL_PATH + "/" + bierDTO.getName()).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        assertThat(cborMapper.readValue(result.getResponse().getContentAsByteArray(), BierDTO.class), is(equalTo(bierDTO)));
+    }
+
+    @Test
+    void whenSmileIsAcceptedThenTheUnpagedListIsReturnedAsSmile() throws Exception {
+        BierDTO bierDTO = bierService.createBier(BierDTOBuilder.builder().id(null).build().toBierDTO());
+
+        MvcResult result = mockMvc.perform(get(BEER_API_URL_PATH).param("unpaged", "true").accept(BinaryFormatConfig.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(BinaryFormatConfig.APPLICATION_SMILE))
+                .andReturn();
+
+        assertThat(smileMapper.readValue(result.getResponse().getContentAsByteArray(), BierDTO[].class)[0], is(equalTo(bierDTO)));
+    }
+
+    @Test
+    void whenCborIsAcceptedThenTheUnpagedListETagNamesTheRepresentation() throws Exception {
+        bierService.createBier(BierDTOBuilder.builder().id(null).build().toBierDTO());
+
+        String eTag = mockMvc.perform(get(BEER_API_URL_PATH).param("unpaged", "true"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(BEER_API_URL_PATH).param("unpaged", "true").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag.substring(0, eTag.length() - 1) + "-cbor\""));
+    }
+
+    @Test
+    void whenTheUnpagedListIsReturnedThenTheResponseVariesByAccept() throws Exception {
+        bierService.createBier(BierDTOBuilder.builder().id(null).build().toBierDTO());
+
+        mockMvc.perform(get(BEER_API_URL_PATH).param("unpaged", "true").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING));
+        mockMvc.perform(get(BEER_API_URL_PATH).param("unpaged", "true").accept(BinaryFormatConfig.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    void whenQuantityIsSentAsCborThenTheStockIsIncremented() throws Exception {
+        BierDTO bierDTO = bierService.createBier(BierDTOBuilder.builder().id(null).build().toBierDTO());
+        byte[] quantity = cborMapper.writeValueAsBytes(QuantityDTO.builder().quantity(5).build());
+
+        MvcResult pending = mockMvc.perform(patch(BEER_API_URL_PATH + "/" + bierDTO.getId() + "/increment")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(quantity))
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        BierDTO incremented = cborMapper.readValue(result.getResponse().getContentAsByteArray(), BierDTO.class);
+        assertThat(incremented.getQuantity(), is(equalTo(bierDTO.getQuantity() + 5)));
+    }
+}
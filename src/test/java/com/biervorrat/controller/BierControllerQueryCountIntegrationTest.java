@@ -0,0 +1,288 @@
+package com.biervorrat.controller;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.cache.BierNameRegistry;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.BierLookupRequestDTO;
+import com.biervorrat.dto.QuantityDTO;
+import com.biervorrat.dto.StockAdjustmentDTO;
+import com.biervorrat.dto.StockAdjustmentRequestDTO;
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.repository.BierTombstoneRepository;
+import com.biervorrat.service.BierService;
+import com.biervorrat.utils.StatementCountingDataSourceConfig;
+import com.biervorrat.utils.StatementCounts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.biervorrat.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SELECT, INSERT, UPDATE and DELETE statements each endpoint issues, so a change
+ * that adds a round trip fails here first.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(StatementCountingDataSourceConfig.class)
+public class BierControllerQueryCountIntegrationTest {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/biere";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BierService bierService;
+
+    @Autowired
+    private BierNameRegistry bierNameRegistry;
+
+    @Autowired
+    private BierRepository bierRepository;
+
+    @Autowired
+    private BierTombstoneRepository bierTombstoneRepository;
+
+    private BierDTO brahma;
+    private BierDTO skol;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bierNameRegistry.reload();
+        brahma = bierService.createBier(BierDTOBuilder.builder().id(null).name("Brahma").build().toBierDTO());
+        skol = bierService.createBier(BierDTOBuilder.builder().id(null).name("Skol").quantity(2).build().toBierDTO());
+        StatementCountingDataSourceConfig.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bierRepository.deleteAll();
+        bierTombstoneRepository.deleteAll();
+    }
+
+    @Test
+    void whenBierIsCreatedThenOnlyTheInsertIsIssued() throws Exception {
+        BierDTO bierDTO = BierDTOBuilder.builder().id(null).name("Heineken").build().toBierDTO();
+
+        mockMvc.perform(post(BEER_API_URL_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(bierDTO)))
+                .andExpect(status().isCreated());
+
+        assertStatements(StatementCounts.of(0, 1, 0, 0));
+    }
+
+    @Test
+    void whenDuplicateBierIsCreatedThenOnlyTheDuplicateCheckIsIssued() throws Exception {
+        mockMvc.perform(post(BEER_API_URL_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(brahma)))
+                .andExpect(status().isBadRequest());
+
+        assertStatements(StatementCounts.of(1, 0, 0, 0));
+    }
+
+    @Test
+    void whenBierIsFoundByNameThenItsRowAndVersionAreSelectedOnce() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH + "/" + brahma.getName())).andExpect(status().isOk());
+
+        assertStatements(StatementCounts.of(1, 0, 0, 0));
+    }
+
+    @Test
+    void whenCachedBierIsFoundByNameThenNoStatementIsIssued() throws Exception {
+        bierService.findByName(brahma.getName());
+        StatementCountingDataSourceConfig.reset();
+
+        mockMvc.perform(get(BEER_API_URL_PATH + "/" + brahma.getName())).andExpect(status().isOk());
+
+        assertStatements(StatementCounts.of(0, 0, 0, 0));
+    }
+
+    @Test
+    void whenUnknownNameIsRequestedThenNoStatementIsIssued() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH + "/Unknown")).andExpect(status().isNotFound());
+
+        assertStatements(StatementCounts.of(0, 0, 0, 0));
+    }
+
+    @Test
+    void whenSparseBierIsFoundByNameThenItsFieldsAndVersionAreSelectedOnce() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH + "/" + brahma.getName()).param("fields", "name,quantity"))
+                .andExpect(status().isOk());
+
+        assertStatements(StatementCounts.of(1, 0, 0, 0));
+    }
+
+    @Test
+    void whenPageIsListedThenASingleSelectIsIssued() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH)).andExpect(status().isOk());
+
+        assertStatements(StatementCounts.of(1, 0, 0, 0));
+    }
+
+    @Test
+    void whenSparsePageIsListedThenASingleSelectIsIssued() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH).param("fields", "name")).andExpect(status().isOk());
+
+        assertStatements(StatementCounts.of(1, 0, 0, 0));
+    }
+
+    @Test
+    void whenUnpagedListIsRequestedTwiceThenItIsSelectedOnce() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH).param("unpaged", "true")).andExpect(status().isOk());
+        mockMvc.perform(get(BEER_API_URL_PATH).param("unpaged", "true")).andExpect(status().isOk());
+
+        assertStatements(StatementCounts.of(1, 0, 0, 0));
+    }
+
+    @Test
+    void whenLowStockIsListedThenASingleSelectIsIssued() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH + "/low-stock")).andExpect(status().isOk());
+
+        assertStatements(StatementCounts.of(1, 0, 0, 0));
+    }
+
+    @Test
+    void whenChangesAreListedThenChangedRowsAndTombstonesAreSelected() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH + "/changes")).andExpect(status().isOk());
+
+        assertStatements(StatementCounts.of(2, 0, 0, 0));
+    }
+
+    @Test
+    void whenNamesAndIdsAreLookedUpThenOneSelectPerKeyTypeIsIssued() throws Exception {
+        BierLookupRequestDTO lookupRequest = new BierLookupRequestDTO(Collections.singletonList(brahma.getName()), Collections.singletonList(skol.getId()));
+
+        mockMvc.perform(post(BEER_API_URL_PATH + "/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(lookupRequest)))
+                .andExpect(status().isOk());
+
+        assertStatements(StatementCounts.of(2, 0, 0, 0));
+    }
+
+    @Test
+    void whenSummaryIsRequestedThenNoStatementIsIssued() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH + "/summary")).andExpect(status().isOk());
+
+        assertStatements(StatementCounts.of(0, 0, 0, 0));
+    }
+
+    @Test
+    void whenSummaryIsRebuiltThenBiersAndRecentTombstonesAreSelectedOnce() throws Exception {
+        mockMvc.perform(post(BEER_API_URL_PATH + "/summary/rebuild")).andExpect(status().isOk());
+
+        assertStatements(StatementCounts.of(2, 0, 0, 0));
+    }
+
+    @Test
+    void whenBierIsDeletedThenItIsLoadedDeletedAndTombstoned() throws Exception {
+        mockMvc.perform(delete(BEER_API_URL_PATH + "/" + brahma.getId())).andExpect(status().isNoContent());
+
+        assertStatements(StatementCounts.of(1, 1, 0, 1));
+    }
+
+    @Test
+    void whenBierIsIncrementedThenItIsUpdatedAndReloaded() throws Exception {
+        performAsync(patch(BEER_API_URL_PATH + "/" + brahma.getId() + "/increment")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(new QuantityDTO(5))))
+                .andExpect(status().isOk());
+
+        assertStatements(StatementCounts.of(1, 0, 1, 0));
+    }
+
+    @Test
+    void whenBierIsDecrementedThenItIsUpdatedAndReloaded() throws Exception {
+        performAsync(patch(BEER_API_URL_PATH + "/" + brahma.getId() + "/decrement")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(new QuantityDTO(5))))
+                .andExpect(status().isOk());
+
+        assertStatements(StatementCounts.of(1, 0, 1, 0));
+    }
+
+    @Test
+    void whenBierIsIncrementedIfCurrentThenItIsConditionallyUpdatedAndReloaded() throws Exception {
+        long version = bierService.findVersionedByName(brahma.getName()).getVersion();
+        StatementCountingDataSourceConfig.reset();
+
+        performAsync(patch(BEER_API_URL_PATH + "/" + brahma.getId() + "/increment")
+                .header(HttpHeaders.IF_MATCH, "\"" + version + "\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(new QuantityDTO(5))))
+                .andExpect(status().isOk());
+
+        assertStatements(StatementCounts.of(1, 0, 1, 0));
+    }
+
+    @Test
+    void whenStockIsAdjustedInBatchThenRowsAreLockedOnceAndUpdatedInOneJdbcBatch() throws Exception {
+        StockAdjustmentRequestDTO adjustmentRequest = StockAdjustmentRequestDTO.builder()
+                .adjustments(Arrays.asList(new StockAdjustmentDTO(brahma.getId(), 1), new StockAdjustmentDTO(skol.getId(), -1)))
+                .build();
+
+        mockMvc.perform(patch(BEER_API_URL_PATH + "/stock")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(adjustmentRequest)))
+                .andExpect(status().isOk());
+
+        assertStatements(StatementCounts.of(1, 0, 1, 0));
+    }
+
+    @Test
+    void whenBiersAreImportedThenNewNamesAreInsertedWithoutADuplicateCheck() throws Exception {
+        String ndjson = asJsonString(BierDTOBuilder.builder().id(null).name("Heineken").build().toBierDTO()) + "\n"
+                + asJsonString(BierDTOBuilder.builder().id(null).name("Colorado").build().toBierDTO()) + "\n";
+
+        mockMvc.perform(post(BEER_API_URL_PATH + "/import")
+                        .contentType("application/x-ndjson")
+                        .content(ndjson))
+                .andExpect(status().isOk());
+
+        assertStatements(StatementCounts.of(0, 1, 0, 0));
+    }
+
+    @Test
+    void whenBiersAreExportedThenASingleStreamingSelectIsIssued() throws Exception {
+        performAsync(get(BEER_API_URL_PATH + "/export")).andExpect(status().isOk());
+
+        assertStatements(StatementCounts.of(1, 0, 0, 0));
+    }
+
+    private ResultActions performAsync(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(mvcResult));
+    }
+
+    private static void assertStatements(StatementCounts expected) {
+        assertThat(StatementCountingDataSourceConfig.counts(), is(equalTo(expected)));
+    }
+}
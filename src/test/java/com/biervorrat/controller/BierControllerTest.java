@@ -1,11 +1,37 @@
 package com.biervorrat.controller;
 
 import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.cache.BierListResponseCache;
+import com.biervorrat.dto.BierChangesDTO;
 import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.BierFieldsPageDTO;
+import com.biervorrat.dto.BierImportSummaryDTO;
+import com.biervorrat.dto.BierLookupRequestDTO;
+import com.biervorrat.dto.BierLookupResultDTO;
+import com.biervorrat.dto.BierPageDTO;
+import com.biervorrat.dto.BierStockSummaryDTO;
 import com.biervorrat.dto.QuantityDTO;
+import com.biervorrat.dto.StockAdjustmentDTO;
+import com.biervorrat.dto.StockAdjustmentRequestDTO;
+import com.biervorrat.dto.StockAdjustmentResultDTO;
+import com.biervorrat.dto.StockRollupDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.enums.BierField;
+import com.biervorrat.enums.BierFileFormat;
+import com.biervorrat.enums.BierSortKey;
+import com.biervorrat.enums.BierType;
+import com.biervorrat.enums.StockAdjustmentMode;
+import com.biervorrat.enums.StockAdjustmentStatus;
+import com.biervorrat.exception.BierLookupTooLargeException;
 import com.biervorrat.exception.BierNotFoundException;
 import com.biervorrat.exception.BierStockExceededException;
+import com.biervorrat.exception.BierVersionMismatchException;
+import com.biervorrat.exception.InvalidBierCursorException;
+import com.biervorrat.service.BierChangeStreamService;
+import com.biervorrat.service.BierExportService;
+import com.biervorrat.service.BierImportService;
 import com.biervorrat.service.BierService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,16 +39,24 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
 import static com.biervorrat.utils.JsonConvertionUtils.asJsonString;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -30,11 +64,25 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
@@ -49,12 +97,32 @@ public class BierControllerTest {
     private static final long INVALID_BEER_ID = 2l;
     private static final String BEER_API_SUBPATH_INCREMENT_URL = "/increment";
     private static final String BEER_API_SUBPATH_DECREMENT_URL = "/decrement";
+    private static final String BEER_API_SUBPATH_STOCK_URL = "/stock";
+    private static final String BEER_API_SUBPATH_IMPORT_URL = "/import";
+    private static final String BEER_API_SUBPATH_EXPORT_URL = "/export";
+    private static final String BEER_API_SUBPATH_SUMMARY_URL = "/summary";
+    private static final String BEER_API_SUBPATH_LOOKUP_URL = "/lookup";
+    private static final String BEER_API_SUBPATH_LOW_STOCK_URL = "/low-stock";
+    private static final String BEER_API_SUBPATH_STREAM_URL = "/stream";
+    private static final String BEER_API_SUBPATH_CHANGES_URL = "/changes";
 
     private MockMvc mockMvc;
 
     @Mock
     private BierService bierService;
 
+    @Mock
+    private BierImportService bierImportService;
+
+    @Mock
+    private BierExportService bierExportService;
+
+    @Mock
+    private BierChangeStreamService bierChangeStreamService;
+
+    @Mock
+    private BierListResponseCache bierListResponseCache;
+
     @InjectMocks
     private BierController bierController;
 
@@ -96,7 +164,7 @@ public class BierControllerTest {
     void whenGETIsCalledWithValidNameThenOkStatusIsReturned() throws Exception {
         BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
 
-        when(bierService.findByName(bierDTO.getName())).thenReturn(bierDTO);
+        when(bierService.findVersionedByName(bierDTO.getName())).thenReturn(new VersionedBierDTO(bierDTO, 7L));
 
         mockMvc.perform(get(BEER_API_URL_PATH + "/" + bierDTO.getName())
                         .contentType(MediaType.APPLICATION_JSON))
@@ -106,11 +174,122 @@ public class BierControllerTest {
                 .andExpect(jsonPath("$.type", is(bierDTO.getType().toString())));
     }
 
+    @Test
+    void whenGETIsCalledWithValidNameThenTheVersionIsReturnedAsETag() throws Exception {
+        BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
+
+        when(bierService.findVersionedByName(bierDTO.getName())).thenReturn(new VersionedBierDTO(bierDTO, 7L));
+
+        mockMvc.perform(get(BEER_API_URL_PATH + "/" + bierDTO.getName())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""));
+    }
+
+    @Test
+    void whenGETIsCalledWithCurrentETagThenNotModifiedStatusIsReturned() throws Exception {
+        BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
+
+        when(bierService.findVersionedByName(bierDTO.getName())).thenReturn(new VersionedBierDTO(bierDTO, 7L));
+
+        mockMvc.perform(get(BEER_API_URL_PATH + "/" + bierDTO.getName())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void whenGETPageIsCalledWithCurrentETagThenNotModifiedStatusIsReturned() throws Exception {
+        when(bierService.listVersion()).thenReturn(42L);
+
+        mockMvc.perform(get(BEER_API_URL_PATH)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"42\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+
+        verify(bierService, never()).listPage(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void whenGETIsCalledWithFieldsThenOnlyTheRequestedFieldsAreReturned() throws Exception {
+        BierDTO sparseBier = new BierDTO();
+        sparseBier.setId(1L);
+        sparseBier.setName("Brahma");
+        sparseBier.setQuantity(10);
+
+        when(bierService.findVersionedByName("Brahma", EnumSet.of(BierField.NAME, BierField.QUANTITY))).thenReturn(new VersionedBierDTO(sparseBier, 3L));
+
+        mockMvc.perform(get(BEER_API_URL_PATH + "/Brahma")
+                        .param("fields", "name,quantity")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Brahma")))
+                .andExpect(jsonPath("$.quantity", is(10)))
+                .andExpect(jsonPath("$.brand").doesNotExist());
+    }
+
+    @Test
+    void whenGETIsCalledWithUnknownFieldThenBadRequestStatusIsReturned() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH + "/Brahma")
+                        .param("fields", "name,price")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(bierService, never()).findVersionedByName(any(), any());
+    }
+
+    @Test
+    void whenGETPageIsCalledWithFieldsThenSparseItemsAreReturned() throws Exception {
+        Map<String, Object> sparseBier = new LinkedHashMap<>();
+        sparseBier.put("type", "LAGER");
+
+        when(bierService.listPage(BierSortKey.ID, null, null, null, null, EnumSet.of(BierField.TYPE)))
+                .thenReturn(new BierFieldsPageDTO(Collections.singletonList(sparseBier), "next-cursor"));
+
+        mockMvc.perform(get(BEER_API_URL_PATH)
+                        .param("fields", "type")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].type", is("LAGER")))
+                .andExpect(jsonPath("$.items[0].name").doesNotExist())
+                .andExpect(jsonPath("$.next", is("next-cursor")));
+    }
+
+    @Test
+    void whenGETPageIsCalledWithFieldsAndUnpagedFalseThenSparseItemsAreReturned() throws Exception {
+        Map<String, Object> sparseBier = new LinkedHashMap<>();
+        sparseBier.put("type", "LAGER");
+
+        when(bierService.listPage(BierSortKey.ID, null, null, null, null, EnumSet.of(BierField.TYPE)))
+                .thenReturn(new BierFieldsPageDTO(Collections.singletonList(sparseBier), null));
+
+        mockMvc.perform(get(BEER_API_URL_PATH)
+                        .param("fields", "type")
+                        .param("unpaged", "false")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].type", is("LAGER")))
+                .andExpect(jsonPath("$.items[0].name").doesNotExist());
+    }
+
+    @Test
+    void whenGETListIsCalledWithFieldsAndUnpagedTrueThenBadRequestStatusIsReturned() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH)
+                        .param("fields", "type")
+                        .param("unpaged", "true")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(bierListResponseCache, never()).current();
+        verify(bierService, never()).listAll();
+    }
+
     @Test
     void whenGETIsCalledWithNotRegisteredNameThenNotFoundStatusIsReturned() throws Exception {
         BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
 
-        when(bierService.findByName(bierDTO.getName())).thenThrow(BierNotFoundException.class);
+        when(bierService.findVersionedByName(bierDTO.getName())).thenThrow(BierNotFoundException.class);
 
         mockMvc.perform(get(BEER_API_URL_PATH + "/" + bierDTO.getName())
                         .contentType(MediaType.APPLICATION_JSON))
@@ -121,9 +300,10 @@ public class BierControllerTest {
     void whenGETListWithBiersIsCalledThenOkStatusIsReturned() throws Exception {
         BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
 
-        when(bierService.listAll()).thenReturn(Collections.singletonList(bierDTO));
+        when(bierListResponseCache.current()).thenReturn(snapshotOf(Collections.singletonList(bierDTO)));
 
         mockMvc.perform(get(BEER_API_URL_PATH)
+                        .param("unpaged", "true")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].name", is(bierDTO.getName())))
@@ -131,15 +311,175 @@ public class BierControllerTest {
                 .andExpect(jsonPath("$[0].type", is(bierDTO.getType().toString())));
     }
 
+    @Test
+    void whenGETListAcceptsGzipThenThePreGzippedBytesAreReturned() throws Exception {
+        BierListResponseCache.Snapshot snapshot = snapshotOf(Collections.singletonList(BierDTOBuilder.builder().build().toBierDTO()));
+
+        when(bierListResponseCache.current()).thenReturn(snapshot);
+
+        mockMvc.perform(get(BEER_API_URL_PATH)
+                        .param("unpaged", "true")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().bytes(snapshot.getGzipped()));
+    }
+
+    @Test
+    void whenGETListAcceptsGzipThenTheETagDiffersFromTheIdentityETag() throws Exception {
+        when(bierService.listVersion()).thenReturn(42L);
+        when(bierListResponseCache.current()).thenReturn(snapshotOf(Collections.emptyList()));
+
+        mockMvc.perform(get(BEER_API_URL_PATH)
+                        .param("unpaged", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"42\""));
+        mockMvc.perform(get(BEER_API_URL_PATH)
+                        .param("unpaged", "true")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"42-gzip\""));
+    }
+
+    @Test
+    void whenGETListAcceptsGzipWithTheIdentityETagThenTheGzippedBodyIsReturned() throws Exception {
+        BierListResponseCache.Snapshot snapshot = snapshotOf(Collections.emptyList());
+
+        when(bierService.listVersion()).thenReturn(42L);
+        when(bierListResponseCache.current()).thenReturn(snapshot);
+
+        mockMvc.perform(get(BEER_API_URL_PATH)
+                        .param("unpaged", "true")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"42\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(snapshot.getGzipped()));
+    }
+
     @Test
     void whenGETListWithoutBiersIsCalledThenOkStatusIsReturned() throws Exception {
-        when(bierService.listAll()).thenReturn(Collections.EMPTY_LIST);
+        when(bierListResponseCache.current()).thenReturn(snapshotOf(Collections.emptyList()));
 
         mockMvc.perform(get(BEER_API_URL_PATH)
+                        .param("unpaged", "true")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void whenGETStreamIsCalledThenAnEventStreamIsOpenedWithTheGivenFilters() throws Exception {
+        when(bierChangeStreamService.subscribe(null, BierType.IPA, "Ambev")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get(BEER_API_URL_PATH + BEER_API_SUBPATH_STREAM_URL)
+                        .param("type", "IPA")
+                        .param("brand", "Ambev"))
+                .andExpect(request().asyncStarted());
+
+        verify(bierChangeStreamService, times(1)).subscribe(null, BierType.IPA, "Ambev");
+    }
+
+    @Test
+    void whenGETLowStockIsCalledThenBiersBelowTheThresholdAreReturned() throws Exception {
+        BierDTO bierDTO = BierDTOBuilder.builder().quantity(2).build().toBierDTO();
+
+        when(bierService.listLowStock(0.2, 5)).thenReturn(Collections.singletonList(bierDTO));
+
+        mockMvc.perform(get(BEER_API_URL_PATH + BEER_API_SUBPATH_LOW_STOCK_URL)
+                        .param("threshold", "0.2")
+                        .param("limit", "5")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(bierDTO.getName())))
+                .andExpect(jsonPath("$[0].quantity", is(2)));
+    }
+
+    @Test
+    void whenGETChangesIsCalledThenChangesAfterTheGivenSequenceAreReturned() throws Exception {
+        BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
+
+        when(bierService.listChanges(10L, null)).thenReturn(new BierChangesDTO(Collections.singletonList(bierDTO), Collections.singletonList(2L), 15L));
+
+        mockMvc.perform(get(BEER_API_URL_PATH + BEER_API_SUBPATH_CHANGES_URL)
+                        .param("since", "10")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed[0].name", is(bierDTO.getName())))
+                .andExpect(jsonPath("$.deleted[0]", is(2)))
+                .andExpect(jsonPath("$.highWaterMark", is(15)));
+    }
+
+    @Test
+    void whenPOSTLookupIsCalledThenFoundBiersAndMissingKeysAreReturned() throws Exception {
+        BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        BierLookupRequestDTO lookupRequest = new BierLookupRequestDTO(Arrays.asList(bierDTO.getName(), "Skol"), Collections.singletonList(99L));
+
+        when(bierService.lookup(lookupRequest)).thenReturn(new BierLookupResultDTO(Collections.singletonList(bierDTO), Collections.singletonList("Skol"), Collections.singletonList(99L)));
+
+        mockMvc.perform(post(BEER_API_URL_PATH + BEER_API_SUBPATH_LOOKUP_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(lookupRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[0].name", is(bierDTO.getName())))
+                .andExpect(jsonPath("$.missingNames[0]", is("Skol")))
+                .andExpect(jsonPath("$.missingIds[0]", is(99)));
+    }
+
+    @Test
+    void whenPOSTLookupExceedsTheKeyLimitThenBadRequestStatusIsReturned() throws Exception {
+        BierLookupRequestDTO lookupRequest = new BierLookupRequestDTO(Collections.emptyList(), Arrays.asList(1L, 2L));
+
+        when(bierService.lookup(lookupRequest)).thenThrow(new BierLookupTooLargeException(2, 1));
+
+        mockMvc.perform(post(BEER_API_URL_PATH + BEER_API_SUBPATH_LOOKUP_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(lookupRequest)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenGETSummaryIsCalledThenTotalsPerTypeAndBrandAreReturned() throws Exception {
+        StockRollupDTO lager = new StockRollupDTO("LAGER", 1, 10, 50, 0.2);
+        StockRollupDTO ambev = new StockRollupDTO("Ambev", 1, 10, 50, 0.2);
+
+        when(bierService.summary()).thenReturn(new BierStockSummaryDTO(Collections.singletonList(lager), Collections.singletonList(ambev)));
+
+        mockMvc.perform(get(BEER_API_URL_PATH + BEER_API_SUBPATH_SUMMARY_URL)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.byType[0].key", is("LAGER")))
+                .andExpect(jsonPath("$.byType[0].fillRatio", is(0.2)))
+                .andExpect(jsonPath("$.byBrand[0].key", is("Ambev")))
+                .andExpect(jsonPath("$.byBrand[0].capacity", is(50)));
+    }
+
+    @Test
+    void whenGETPageIsCalledThenOkStatusAndNextCursorAreReturned() throws Exception {
+        BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
+
+        when(bierService.listPage(BierSortKey.NAME, null, BierType.LAGER, null, 1))
+                .thenReturn(new BierPageDTO(Collections.singletonList(bierDTO), "next-cursor"));
+
+        mockMvc.perform(get(BEER_API_URL_PATH)
+                        .param("sort", "NAME")
+                        .param("type", "LAGER")
+                        .param("limit", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name", is(bierDTO.getName())))
+                .andExpect(jsonPath("$.next", is("next-cursor")));
+    }
+
+    @Test
+    void whenGETPageIsCalledWithInvalidCursorThenBadRequestStatusIsReturned() throws Exception {
+        when(bierService.listPage(BierSortKey.ID, "garbage", null, null, null)).thenThrow(InvalidBierCursorException.class);
+
+        mockMvc.perform(get(BEER_API_URL_PATH)
+                        .param("cursor", "garbage")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void whenDELETEIsCalledWithValidIdThenNoContentStatusIsReturned() throws Exception {
         doNothing().when(bierService).deleteById(VALID_BEER_ID);
@@ -169,9 +509,9 @@ public class BierControllerTest {
         BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
         bierDTO.setQuantity(bierDTO.getQuantity() + quantityDTO.getQuantity());
 
-        when(bierService.increment(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(bierDTO);
+        when(bierService.incrementAsync(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(CompletableFuture.completedFuture(bierDTO));
 
-        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
+        performAsync(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(quantityDTO))).andExpect(status().isOk())
                 .andExpect(jsonPath("$.name", is(bierDTO.getName())))
@@ -180,6 +520,53 @@ public class BierControllerTest {
                 .andExpect(jsonPath("$.quantity", is(bierDTO.getQuantity())));
     }
 
+    @Test
+    void whenPATCHIsCalledToIncrementWithMatchingETagThenTheNewETagIsReturned() throws Exception {
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(10)
+                .build();
+
+        BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        bierDTO.setQuantity(bierDTO.getQuantity() + quantityDTO.getQuantity());
+
+        when(bierService.incrementIfCurrent(VALID_BEER_ID, quantityDTO.getQuantity(), 7L)).thenReturn(new VersionedBierDTO(bierDTO, 8L));
+
+        performAsync(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
+                        .header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantityDTO))).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"8\""))
+                .andExpect(jsonPath("$.quantity", is(bierDTO.getQuantity())));
+    }
+
+    @Test
+    void whenPATCHIsCalledToIncrementWithStaleETagThenPreconditionFailedStatusIsReturned() throws Exception {
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(10)
+                .build();
+
+        when(bierService.incrementIfCurrent(VALID_BEER_ID, quantityDTO.getQuantity(), 6L)).thenThrow(new BierVersionMismatchException(VALID_BEER_ID, 6L));
+
+        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
+                        .header(HttpHeaders.IF_MATCH, "\"6\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantityDTO)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void whenPATCHIsCalledToDecrementWithMalformedETagThenPreconditionFailedStatusIsReturned() throws Exception {
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(10)
+                .build();
+
+        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
+                        .header(HttpHeaders.IF_MATCH, "W/\"6\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantityDTO)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void whenPATCHIsCalledToIncrementGreatherThanMaxThenBadRequestStatusIsReturned() throws Exception {
         QuantityDTO quantityDTO = QuantityDTO.builder()
@@ -189,9 +576,10 @@ public class BierControllerTest {
         BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
         bierDTO.setQuantity(bierDTO.getQuantity() + quantityDTO.getQuantity());
 
-        when(bierService.increment(VALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BierStockExceededException.class);
+        when(bierService.incrementAsync(VALID_BEER_ID, quantityDTO.getQuantity()))
+                .thenReturn(CompletableFuture.failedFuture(new BierStockExceededException(VALID_BEER_ID, quantityDTO.getQuantity())));
 
-        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
+        performAsync(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(quantityDTO))).andExpect(status().isBadRequest());
     }
@@ -202,8 +590,9 @@ public class BierControllerTest {
                 .quantity(30)
                 .build();
 
-        when(bierService.increment(INVALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BierNotFoundException.class);
-        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + INVALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
+        when(bierService.incrementAsync(INVALID_BEER_ID, quantityDTO.getQuantity()))
+                .thenReturn(CompletableFuture.failedFuture(new BierNotFoundException(INVALID_BEER_ID)));
+        performAsync(patch(BEER_API_URL_PATH + "/" + INVALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(quantityDTO)))
                 .andExpect(status().isNotFound());
@@ -218,9 +607,9 @@ public class BierControllerTest {
         BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
         bierDTO.setQuantity(bierDTO.getQuantity() + quantityDTO.getQuantity());
 
-        when(bierService.decrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(bierDTO);
+        when(bierService.decrementAsync(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(CompletableFuture.completedFuture(bierDTO));
 
-        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
+        performAsync(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(quantityDTO))).andExpect(status().isOk())
                 .andExpect(jsonPath("$.name", is(bierDTO.getName())))
@@ -238,9 +627,10 @@ public class BierControllerTest {
         BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
         bierDTO.setQuantity(bierDTO.getQuantity() + quantityDTO.getQuantity());
 
-        when(bierService.decrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BierStockExceededException.class);
+        when(bierService.decrementAsync(VALID_BEER_ID, quantityDTO.getQuantity()))
+                .thenReturn(CompletableFuture.failedFuture(new BierStockExceededException(VALID_BEER_ID, quantityDTO.getQuantity())));
 
-        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
+        performAsync(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(quantityDTO))).andExpect(status().isBadRequest());
     }
@@ -251,10 +641,121 @@ public class BierControllerTest {
                 .quantity(5)
                 .build();
 
-        when(bierService.decrement(INVALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BierNotFoundException.class);
-        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + INVALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
+        when(bierService.decrementAsync(INVALID_BEER_ID, quantityDTO.getQuantity()))
+                .thenReturn(CompletableFuture.failedFuture(new BierNotFoundException(INVALID_BEER_ID)));
+        performAsync(patch(BEER_API_URL_PATH + "/" + INVALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(quantityDTO)))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void whenPATCHIsCalledWithStockAdjustmentsThenOKStatusAndResultsAreReturned() throws Exception {
+        List<StockAdjustmentDTO> adjustments = Arrays.asList(
+                new StockAdjustmentDTO(VALID_BEER_ID, 5),
+                new StockAdjustmentDTO(INVALID_BEER_ID, -5));
+        StockAdjustmentRequestDTO stockAdjustmentRequestDTO = StockAdjustmentRequestDTO.builder()
+                .mode(StockAdjustmentMode.BEST_EFFORT)
+                .adjustments(adjustments)
+                .build();
+        List<StockAdjustmentResultDTO> results = Arrays.asList(
+                new StockAdjustmentResultDTO(VALID_BEER_ID, 5, StockAdjustmentStatus.APPLIED, 15),
+                new StockAdjustmentResultDTO(INVALID_BEER_ID, -5, StockAdjustmentStatus.NOT_FOUND, null));
+
+        when(bierService.adjustStock(adjustments, StockAdjustmentMode.BEST_EFFORT)).thenReturn(results);
+
+        mockMvc.perform(patch(BEER_API_URL_PATH + BEER_API_SUBPATH_STOCK_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(stockAdjustmentRequestDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is(StockAdjustmentStatus.APPLIED.toString())))
+                .andExpect(jsonPath("$[0].quantity", is(15)))
+                .andExpect(jsonPath("$[1].status", is(StockAdjustmentStatus.NOT_FOUND.toString())));
+    }
+
+    @Test
+    void whenPATCHIsCalledWithoutStockAdjustmentsThenBadRequestStatusIsReturned() throws Exception {
+        StockAdjustmentRequestDTO stockAdjustmentRequestDTO = StockAdjustmentRequestDTO.builder()
+                .adjustments(Collections.emptyList())
+                .build();
+
+        mockMvc.perform(patch(BEER_API_URL_PATH + BEER_API_SUBPATH_STOCK_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(stockAdjustmentRequestDTO)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenPATCHIsCalledWithStockAdjustmentExceedingMaxThenBadRequestStatusIsReturned() throws Exception {
+        List<StockAdjustmentDTO> adjustments = Collections.singletonList(new StockAdjustmentDTO(VALID_BEER_ID, 80));
+        StockAdjustmentRequestDTO stockAdjustmentRequestDTO = StockAdjustmentRequestDTO.builder()
+                .adjustments(adjustments)
+                .build();
+
+        when(bierService.adjustStock(adjustments, StockAdjustmentMode.ALL_OR_NOTHING)).thenThrow(BierStockExceededException.class);
+
+        mockMvc.perform(patch(BEER_API_URL_PATH + BEER_API_SUBPATH_STOCK_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(stockAdjustmentRequestDTO)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenPOSTIsCalledWithNdjsonBiersThenImportSummaryIsReturned() throws Exception {
+        BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
+
+        when(bierImportService.importBiers(any(InputStream.class), eq(BierFileFormat.NDJSON)))
+                .thenReturn(new BierImportSummaryDTO(1, 0, 0));
+
+        mockMvc.perform(post(BEER_API_URL_PATH + BEER_API_SUBPATH_IMPORT_URL)
+                        .contentType(BierFileFormat.NDJSON.getMediaType())
+                        .content(asJsonString(bierDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted", is(1)))
+                .andExpect(jsonPath("$.duplicates", is(0)))
+                .andExpect(jsonPath("$.invalid", is(0)));
+    }
+
+    @Test
+    void whenPOSTIsCalledWithCsvBiersThenImportSummaryIsReturned() throws Exception {
+        when(bierImportService.importBiers(any(InputStream.class), eq(BierFileFormat.CSV)))
+                .thenReturn(new BierImportSummaryDTO(1, 1, 0));
+
+        mockMvc.perform(post(BEER_API_URL_PATH + BEER_API_SUBPATH_IMPORT_URL)
+                        .contentType(BierFileFormat.CSV.getMediaType())
+                        .content("name,brand,max,quantity,type\nBrahma,Ambev,50,10,LAGER\nBrahma,Ambev,50,10,LAGER\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted", is(1)))
+                .andExpect(jsonPath("$.duplicates", is(1)));
+    }
+
+    @Test
+    void whenGETExportIsCalledThenBiersAreStreamedAsCsv() throws Exception {
+        when(bierExportService.exportBiers(any(OutputStream.class), eq(BierFileFormat.CSV))).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write("id,name,brand,max,quantity,type\n".getBytes(StandardCharsets.UTF_8));
+            return 0L;
+        });
+
+        MvcResult mvcResult = mockMvc.perform(get(BEER_API_URL_PATH + BEER_API_SUBPATH_EXPORT_URL)
+                        .param("format", "CSV"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BierFileFormat.CSV.getMediaType()))
+                .andExpect(content().string("id,name,brand,max,quantity,type\n"));
+    }
+
+    private BierListResponseCache.Snapshot snapshotOf(List<BierDTO> biers) throws IOException {
+        return BierListResponseCache.Snapshot.of(1L, new ObjectMapper().writeValueAsBytes(biers));
+    }
+
+    private ResultActions performAsync(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(mvcResult));
+    }
 }
@@ -0,0 +1,52 @@
+package com.biervorrat.hotkeys;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.service.BierService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class BierHotKeysEndpointIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BierService bierService;
+
+    @Autowired
+    private BierRepository bierRepository;
+
+    @AfterEach
+    void tearDown() {
+        bierRepository.deleteAll();
+    }
+
+    @Test
+    void whenOneBierIsHammeredThenItLeadsTheHotBiersEndpoint() throws Exception {
+        BierDTO hotBier = bierService.createBier(BierDTOBuilder.builder().id(null).name("Brahma").max(1_000).quantity(0).build().toBierDTO());
+        BierDTO coldBier = bierService.createBier(BierDTOBuilder.builder().id(null).name("Skol").build().toBierDTO());
+        for (int i = 0; i < 500; i++) {
+            bierService.increment(hotBier.getId(), 1);
+            bierService.findByName(hotBier.getName());
+        }
+        bierService.findByName(coldBier.getName());
+
+        mockMvc.perform(get("/actuator/hotbiers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mostRead[0].id", is(hotBier.getId().intValue())))
+                .andExpect(jsonPath("$.mostMutated[0].id", is(hotBier.getId().intValue())));
+    }
+}
@@ -0,0 +1,72 @@
+package com.biervorrat.hotkeys;
+
+import com.biervorrat.dto.HotKeyDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+public class WindowedTopKTest {
+
+    private static final int BUCKETS = 3;
+
+    private final WindowedTopK windowedTopK = new WindowedTopK(BUCKETS, 256, 4, 3);
+
+    @Test
+    void whenFewKeysAreHammeredAmongNoiseThenTheyAreReportedHottestFirst() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            windowedTopK.add(1_000 + random.nextInt(5_000));
+            if (i % 4 == 0) {
+                windowedTopK.add(7L);
+            }
+            if (i % 8 == 0) {
+                windowedTopK.add(8L);
+            }
+            if (i % 16 == 0) {
+                windowedTopK.add(9L);
+            }
+        }
+
+        List<Long> hottestIds = windowedTopK.top().stream().map(HotKeyDTO::getId).collect(Collectors.toList());
+
+        assertThat(hottestIds, contains(7L, 8L, 9L));
+    }
+
+    @Test
+    void whenKeyIsCountedThenItsEstimateIsNeverBelowTheTrueCount() {
+        for (long id = 0; id < 2_000; id++) {
+            for (int i = 0; i <= id % 5; i++) {
+                windowedTopK.add(id);
+            }
+        }
+
+        for (long id = 0; id < 2_000; id++) {
+            assertThat(windowedTopK.estimate(id), is(greaterThanOrEqualTo(id % 5 + 1)));
+        }
+    }
+
+    @Test
+    void whenCountsRotateOutOfTheWindowThenTheyAreForgotten() {
+        windowedTopK.add(7L);
+        windowedTopK.rotate();
+        windowedTopK.add(7L);
+
+        assertThat(windowedTopK.estimate(7L), is(equalTo(2L)));
+
+        for (int i = 0; i < BUCKETS; i++) {
+            windowedTopK.rotate();
+        }
+
+        assertThat(windowedTopK.estimate(7L), is(equalTo(0L)));
+        assertThat(windowedTopK.top(), is(empty()));
+    }
+}
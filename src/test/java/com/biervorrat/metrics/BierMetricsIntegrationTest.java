@@ -0,0 +1,145 @@
+package com.biervorrat.metrics;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.exception.BierNotFoundException;
+import com.biervorrat.exception.BierStockExceededException;
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.service.BierService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class BierMetricsIntegrationTest {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/biere";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BierService bierService;
+
+    @Autowired
+    private BierRepository bierRepository;
+
+    @AfterEach
+    void tearDown() {
+        bierRepository.deleteAll();
+    }
+
+    @Test
+    void whenBierIsFoundThenTheOperationIsTimedByOperationAndType() throws Exception {
+        BierDTO bierDTO = bierService.createBier(BierDTOBuilder.builder().id(null).build().toBierDTO());
+        long before = operationCount("findByName", bierDTO.getType().name());
+
+        bierService.findByName(bierDTO.getName());
+
+        assertThat(operationCount("findByName", bierDTO.getType().name()), is(equalTo(before + 1)));
+    }
+
+    @Test
+    void whenStockIsExceededThenTheRejectionIsCounted() throws Exception {
+        BierDTO bierDTO = bierService.createBier(BierDTOBuilder.builder().id(null).max(10).quantity(10).build().toBierDTO());
+        double before = rejections("increment", BierStockExceededException.class);
+
+        assertThrows(BierStockExceededException.class, () -> bierService.increment(bierDTO.getId(), 1));
+
+        assertThat(rejections("increment", BierStockExceededException.class), is(equalTo(before + 1)));
+        assertThat(meterRegistry.get(BierServiceMetrics.IN_FLIGHT_GAUGE).gauge().value(), is(equalTo(0.0)));
+    }
+
+    @Test
+    void whenUnknownBierIsRequestedThenTheRejectionIsCounted() throws Exception {
+        double before = rejections("findVersionedByName", BierNotFoundException.class);
+
+        mockMvc.perform(get(BEER_API_URL_PATH + "/Unknown")).andExpect(status().isNotFound());
+
+        assertThat(rejections("findVersionedByName", BierNotFoundException.class), is(equalTo(before + 1)));
+    }
+
+    @Test
+    void whenBierIsRequestedOverHttpThenItsStatementsAreRecordedByUriPattern() throws Exception {
+        BierDTO bierDTO = bierService.createBier(BierDTOBuilder.builder().id(null).build().toBierDTO());
+
+        mockMvc.perform(get(BEER_API_URL_PATH + "/" + bierDTO.getName())).andExpect(status().isOk());
+
+        DistributionSummary selects = meterRegistry.get(SqlStatementMetricsFilter.STATEMENTS_SUMMARY)
+                .tags("method", "GET", "uri", "/api/v1/biere/{name}", "statement", "select")
+                .summary();
+        assertThat(selects.totalAmount(), is(greaterThan(0.0)));
+    }
+
+    @Test
+    void whenBiersAreExportedThenTheStatementsOfTheStreamedBodyAreRecordedOnce() throws Exception {
+        bierService.createBier(BierDTOBuilder.builder().id(null).build().toBierDTO());
+        long recordedBefore = selects("/api/v1/biere/export").count();
+        double selectedBefore = selects("/api/v1/biere/export").totalAmount();
+
+        MvcResult pending = mockMvc.perform(get(BEER_API_URL_PATH + "/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending)).andExpect(status().isOk());
+
+        assertThat(selects("/api/v1/biere/export").count(), is(equalTo(recordedBefore + 1)));
+        assertThat(selects("/api/v1/biere/export").totalAmount(), is(greaterThan(selectedBefore)));
+    }
+
+    @Test
+    void whenPrometheusIsScrapedThenDomainMetricsAreExposed() throws Exception {
+        BierDTO bierDTO = bierService.createBier(BierDTOBuilder.builder().id(null).build().toBierDTO());
+        bierService.findByName(bierDTO.getName());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("biervorrat_service_operations_seconds_bucket")))
+                .andExpect(content().string(containsString("biervorrat_stock_mutations_in_flight")));
+    }
+
+    private DistributionSummary selects(String uri) {
+        return DistributionSummary.builder(SqlStatementMetricsFilter.STATEMENTS_SUMMARY)
+                .tags("method", "GET", "uri", uri, "statement", "select")
+                .register(meterRegistry);
+    }
+
+    private long operationCount(String operation, String type) {
+        Timer timer = meterRegistry.find(BierServiceMetrics.OPERATION_TIMER)
+                .tags("operation", operation, "type", type, "exception", "none")
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double rejections(String operation, Class<? extends Exception> exception) {
+        Counter counter = meterRegistry.find(BierServiceMetrics.REJECTION_COUNTER)
+                .tags("operation", operation, "exception", exception.getSimpleName())
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
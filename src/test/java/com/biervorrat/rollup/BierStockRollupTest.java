@@ -0,0 +1,130 @@
+package com.biervorrat.rollup;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.changes.ChangeSequencer;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.BierStockSummaryDTO;
+import com.biervorrat.dto.StockRollupDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.entity.BierTombstone;
+import com.biervorrat.enums.BierType;
+import com.biervorrat.event.BierChangeEvent;
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.repository.BierTombstoneRepository;
+import com.biervorrat.stock.StockEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BierStockRollupTest {
+
+    @Mock
+    private BierRepository bierRepository;
+    @Mock
+    private BierTombstoneRepository bierTombstoneRepository;
+    @Mock
+    private ChangeSequencer changeSequencer;
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private StockEngine stockEngine;
+    @InjectMocks
+    private BierStockRollup bierStockRollup;
+
+    @Test
+    void whenBiersAreCreatedAndAdjustedThenTotalsArePerTypeAndBrand() {
+        BierDTO brahma = BierDTOBuilder.builder().id(1L).name("Brahma").max(50).quantity(10).type(BierType.LAGER).build().toBierDTO();
+        BierDTO colorado = BierDTOBuilder.builder().id(2L).name("Colorado").brand("Colorado").max(100).quantity(40).type(BierType.IPA).build().toBierDTO();
+
+        bierStockRollup.onBierChange(BierChangeEvent.created(brahma, 1L));
+        bierStockRollup.onBierChange(BierChangeEvent.created(colorado, 2L));
+        bierStockRollup.onBierChange(BierChangeEvent.quantityChanged(brahma, 15, 3L));
+
+        BierStockSummaryDTO summary = bierStockRollup.summary();
+
+        assertThat(summary.getByType(), contains(
+                new StockRollupDTO("IPA", 1, 40, 100, 0.4),
+                new StockRollupDTO("LAGER", 1, 25, 50, 0.5)));
+        assertThat(summary.getByBrand(), contains(
+                new StockRollupDTO("Ambev", 1, 25, 50, 0.5),
+                new StockRollupDTO("Colorado", 1, 40, 100, 0.4)));
+    }
+
+    @Test
+    void whenTheLastBierOfABrandIsDeletedThenTheBrandIsNoLongerReported() {
+        BierDTO brahma = BierDTOBuilder.builder().build().toBierDTO();
+
+        bierStockRollup.onBierChange(BierChangeEvent.created(brahma, 1L));
+        bierStockRollup.onBierChange(BierChangeEvent.deleted(brahma, 2L));
+
+        BierStockSummaryDTO summary = bierStockRollup.summary();
+
+        assertThat(summary.getByType(), is(empty()));
+        assertThat(summary.getByBrand(), is(empty()));
+    }
+
+    @Test
+    void whenRollupIsRebuiltThenTotalsAreRecomputedFromTheRepository() {
+        BierDTO brahma = BierDTOBuilder.builder().id(1L).name("Brahma").quantity(10).build().toBierDTO();
+        BierDTO skol = BierDTOBuilder.builder().id(2L).name("Skol").quantity(30).build().toBierDTO();
+
+        bierStockRollup.onBierChange(BierChangeEvent.quantityChanged(brahma, 500, 1L));
+        when(bierRepository.findAllVersionedDTOs()).thenReturn(Arrays.asList(new VersionedBierDTO(brahma, 1L), new VersionedBierDTO(skol, 2L)));
+
+        bierStockRollup.rebuild();
+
+        assertThat(bierStockRollup.summary().getByBrand(), contains(new StockRollupDTO("Ambev", 2, 40, 100, 0.4)));
+    }
+
+    @Test
+    void whenChangesReadByTheRebuildArriveAfterItThenOnlyLaterChangesAreCounted() {
+        BierDTO brahma = BierDTOBuilder.builder().id(1L).name("Brahma").quantity(10).build().toBierDTO();
+        BierDTO skol = BierDTOBuilder.builder().id(2L).name("Skol").quantity(30).build().toBierDTO();
+        when(changeSequencer.highWaterMark()).thenReturn(10L);
+        when(bierRepository.findAllVersionedDTOs()).thenReturn(Arrays.asList(new VersionedBierDTO(brahma, 12L), new VersionedBierDTO(skol, 4L)));
+
+        bierStockRollup.rebuild();
+        bierStockRollup.onBierChange(BierChangeEvent.quantityChanged(skol, 5, 8L));
+        bierStockRollup.onBierChange(BierChangeEvent.quantityChanged(brahma, 5, 12L));
+        bierStockRollup.onBierChange(BierChangeEvent.quantityChanged(skol, 2, 11L));
+        bierStockRollup.onBierChange(BierChangeEvent.quantityChanged(brahma, 3, 13L));
+
+        assertThat(bierStockRollup.summary().getByBrand(), contains(new StockRollupDTO("Ambev", 2, 45, 100, 0.45)));
+    }
+
+    @Test
+    void whenADeleteReadByTheRebuildArrivesAfterItThenTheBierIsNotSubtractedAgain() {
+        BierDTO brahma = BierDTOBuilder.builder().id(1L).name("Brahma").quantity(10).build().toBierDTO();
+        BierDTO skol = BierDTOBuilder.builder().id(2L).name("Skol").quantity(30).build().toBierDTO();
+        when(changeSequencer.highWaterMark()).thenReturn(10L);
+        when(bierRepository.findAllVersionedDTOs()).thenReturn(Collections.singletonList(new VersionedBierDTO(skol, 4L)));
+        when(bierTombstoneRepository.findAllChangedSince(10L)).thenReturn(Collections.singletonList(new BierTombstone(1L, 11L)));
+
+        bierStockRollup.rebuild();
+        bierStockRollup.onBierChange(BierChangeEvent.deleted(brahma, 11L));
+
+        assertThat(bierStockRollup.summary().getByBrand(), contains(new StockRollupDTO("Ambev", 1, 30, 50, 0.6)));
+    }
+
+    @Test
+    void whenABierReadByTheRebuildIsDeletedBeforeTombstonesAreReadThenItsDeleteIsCounted() {
+        BierDTO skol = BierDTOBuilder.builder().id(2L).name("Skol").quantity(30).build().toBierDTO();
+        when(changeSequencer.highWaterMark()).thenReturn(10L);
+        when(bierRepository.findAllVersionedDTOs()).thenReturn(Collections.singletonList(new VersionedBierDTO(skol, 4L)));
+        when(bierTombstoneRepository.findAllChangedSince(10L)).thenReturn(Collections.singletonList(new BierTombstone(2L, 11L)));
+
+        bierStockRollup.rebuild();
+        bierStockRollup.onBierChange(BierChangeEvent.deleted(skol, 11L));
+
+        assertThat(bierStockRollup.summary().getByBrand(), is(empty()));
+    }
+}
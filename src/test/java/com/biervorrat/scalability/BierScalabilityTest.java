@@ -0,0 +1,269 @@
+package com.biervorrat.scalability;
+
+import com.biervorrat.benchmark.BenchmarkRecorder;
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.cache.BierNameRegistry;
+import com.biervorrat.changes.ChangeSequencer;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.BierLookupRequestDTO;
+import com.biervorrat.dto.QuantityDTO;
+import com.biervorrat.dto.StockAdjustmentDTO;
+import com.biervorrat.dto.StockAdjustmentRequestDTO;
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.repository.BierTombstoneRepository;
+import com.biervorrat.rollup.BierStockRollup;
+import com.biervorrat.service.BierService;
+import com.biervorrat.utils.BierDataGenerator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static com.biervorrat.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Grows a synthetic inventory through {@code scalability.sizes} and measures every BierController
+ * endpoint at each size. The report in {@code target/scalability-report.txt} gives latency and
+ * allocation per request plus the growth exponent of latency against table size: about 0 means the
+ * endpoint is flat, about 1 means it scales linearly. The first size is measured twice so that JIT
+ * warm-up does not show up as negative growth.
+ */
+@Tag("scalability")
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class BierScalabilityTest {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/biere";
+    private static final String SIZES_PROPERTY = "scalability.sizes";
+    private static final String DEFAULT_SIZES = "100000,300000,1000000";
+    private static final Path REPORT = Paths.get("target", "scalability-report.txt");
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 10;
+    private static final double FLAT_EXPONENT = 0.2;
+    private static final double LINEAR_EXPONENT = 0.7;
+
+    private final AtomicLong uniqueNames = new AtomicLong();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BierService bierService;
+
+    @Autowired
+    private BierRepository bierRepository;
+
+    @Autowired
+    private BierTombstoneRepository bierTombstoneRepository;
+
+    @Autowired
+    private ChangeSequencer changeSequencer;
+
+    @Autowired
+    private BierNameRegistry bierNameRegistry;
+
+    @Autowired
+    private BierStockRollup bierStockRollup;
+
+    @AfterAll
+    void tearDown() {
+        bierRepository.deleteAllInBatch();
+        bierTombstoneRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void measureEveryEndpointAsTheInventoryGrows() throws Exception {
+        long[] sizes = Arrays.stream(System.getProperty(SIZES_PROPERTY, DEFAULT_SIZES).split(","))
+                .map(String::trim)
+                .mapToLong(Long::parseLong)
+                .sorted()
+                .toArray();
+        BierDataGenerator generator = BierDataGenerator.skewed(jdbcTemplate, 42L);
+        Map<Long, Map<String, BenchmarkRecorder.Result>> resultsBySize = new LinkedHashMap<>();
+        Map<Long, Long> heapBySize = new LinkedHashMap<>();
+
+        long generated = 0;
+        for (long size : sizes) {
+            generator.generate(generated, size);
+            generated = size;
+            refreshInMemoryState();
+            if (resultsBySize.isEmpty()) {
+                measureEndpoints(size);
+            }
+            resultsBySize.put(size, measureEndpoints(size));
+            heapBySize.put(size, usedHeapAfterGc());
+        }
+
+        String report = report(resultsBySize, heapBySize);
+        System.out.println(report);
+        Files.createDirectories(REPORT.getParent());
+        Files.write(REPORT, report.getBytes(StandardCharsets.UTF_8));
+
+        if (sizes.length > 1) {
+            long smallest = sizes[0];
+            long largest = sizes[sizes.length - 1];
+            assertThat(exponent(resultsBySize, "GET /{name}", smallest, largest),
+                    is(lessThan(exponent(resultsBySize, "GET /export", smallest, largest))));
+        }
+    }
+
+    private void refreshInMemoryState() {
+        changeSequencer.init();
+        bierNameRegistry.reload();
+        bierStockRollup.rebuild();
+    }
+
+    private Map<String, BenchmarkRecorder.Result> measureEndpoints(long size) throws Exception {
+        BierDTO hotBier = bierService.createBier(BierDTOBuilder.builder()
+                .id(null).name("Hot-" + uniqueNames.incrementAndGet()).max(1_000_000).quantity(500_000).build().toBierDTO());
+        String existingName = BierDataGenerator.nameOf(size / 2);
+        List<Long> deletableIds = jdbcTemplate.queryForList(
+                "SELECT id FROM bier WHERE name LIKE 'Bier-%' ORDER BY id DESC LIMIT ?", Long.class,
+                WARMUP_ITERATIONS + MEASURED_ITERATIONS);
+        AtomicLong nextDeletable = new AtomicLong();
+        String lookupBody = asJsonString(new BierLookupRequestDTO(
+                Arrays.asList(existingName, BierDataGenerator.nameOf(size / 3), "Unknown"),
+                Collections.singletonList(hotBier.getId())));
+        String adjustmentBody = asJsonString(StockAdjustmentRequestDTO.builder()
+                .adjustments(Collections.singletonList(new StockAdjustmentDTO(hotBier.getId(), 1)))
+                .build());
+        String quantityBody = asJsonString(new QuantityDTO(1));
+
+        BenchmarkRecorder recorder = new BenchmarkRecorder(WARMUP_ITERATIONS, MEASURED_ITERATIONS);
+        measure(recorder, "POST /", () -> post(BEER_API_URL_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(BierDTOBuilder.builder().id(null).name("New-" + uniqueNames.incrementAndGet()).build().toBierDTO())));
+        measure(recorder, "GET /{name}", () -> get(BEER_API_URL_PATH + "/" + existingName));
+        measure(recorder, "GET /{name}?fields", () -> get(BEER_API_URL_PATH + "/" + existingName).param("fields", "name,quantity"));
+        measure(recorder, "GET /{name} unknown", () -> get(BEER_API_URL_PATH + "/Unknown"));
+        measure(recorder, "GET / (page)", () -> get(BEER_API_URL_PATH));
+        measure(recorder, "GET / (page, by type)", () -> get(BEER_API_URL_PATH).param("type", "STOUT"));
+        measure(recorder, "GET /?fields (page)", () -> get(BEER_API_URL_PATH).param("fields", "name"));
+        measure(recorder, "GET /?unpaged=true", () -> get(BEER_API_URL_PATH).param("unpaged", "true"));
+        measure(recorder, "GET /low-stock", () -> get(BEER_API_URL_PATH + "/low-stock"));
+        measure(recorder, "GET /changes", () -> get(BEER_API_URL_PATH + "/changes").param("since", String.valueOf(size / 2)));
+        measure(recorder, "POST /lookup", () -> post(BEER_API_URL_PATH + "/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(lookupBody));
+        measure(recorder, "GET /summary", () -> get(BEER_API_URL_PATH + "/summary"));
+        measure(recorder, "POST /summary/rebuild", () -> post(BEER_API_URL_PATH + "/summary/rebuild"));
+        measure(recorder, "PATCH /{id}/increment", () -> patch(BEER_API_URL_PATH + "/" + hotBier.getId() + "/increment")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(quantityBody));
+        measure(recorder, "PATCH /{id}/decrement", () -> patch(BEER_API_URL_PATH + "/" + hotBier.getId() + "/decrement")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(quantityBody));
+        measure(recorder, "PATCH /stock", () -> patch(BEER_API_URL_PATH + "/stock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(adjustmentBody));
+        measure(recorder, "POST /import", () -> post(BEER_API_URL_PATH + "/import")
+                .contentType("application/x-ndjson")
+                .content(asJsonString(BierDTOBuilder.builder().id(null).name("Imported-" + uniqueNames.incrementAndGet()).build().toBierDTO()) + "\n"));
+        measure(recorder, "GET /export", () -> get(BEER_API_URL_PATH + "/export"));
+        measure(recorder, "DELETE /{id}", () -> delete(BEER_API_URL_PATH + "/" + deletableIds.get((int) nextDeletable.getAndIncrement())));
+        return recorder.results();
+    }
+
+    private void measure(BenchmarkRecorder recorder, String endpoint, RequestFactory requestFactory) {
+        recorder.measure(endpoint, () -> {
+            try {
+                MvcResult result = mockMvc.perform(requestFactory.create()).andReturn();
+                if (result.getRequest().isAsyncStarted()) {
+                    result = mockMvc.perform(asyncDispatch(result)).andReturn();
+                }
+                if (result.getResponse().getStatus() >= 500) {
+                    throw new IllegalStateException(endpoint + " failed with status " + result.getResponse().getStatus());
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(endpoint + " failed", e);
+            }
+        });
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static String report(Map<Long, Map<String, BenchmarkRecorder.Result>> resultsBySize, Map<Long, Long> heapBySize) {
+        List<Long> sizes = new ArrayList<>(resultsBySize.keySet());
+        long smallest = sizes.get(0);
+        long largest = sizes.get(sizes.size() - 1);
+        StringBuilder report = new StringBuilder(String.format("%nBierController scalability over %s rows%n",
+                sizes.stream().map(String::valueOf).collect(Collectors.joining(" / "))));
+        report.append(String.format("%-26s", "endpoint"));
+        sizes.forEach(size -> report.append(String.format(" %14s %14s", size + " us", size + " KB/op")));
+        report.append(String.format(" %9s  %s%n", "exponent", "scaling"));
+        for (String endpoint : resultsBySize.get(smallest).keySet()) {
+            report.append(String.format("%-26s", endpoint));
+            for (long size : sizes) {
+                BenchmarkRecorder.Result result = resultsBySize.get(size).get(endpoint);
+                report.append(String.format(" %14.1f %14.1f", result.getNanosPerOperation() / 1000.0, result.getBytesPerOperation() / 1024.0));
+            }
+            double exponent = exponent(resultsBySize, endpoint, smallest, largest);
+            report.append(String.format(" %9.2f  %s%n", exponent, scaling(exponent, sizes.size())));
+        }
+        report.append(String.format("%-26s", "heap used after GC (MB)"));
+        sizes.forEach(size -> report.append(String.format(" %29.1f", heapBySize.get(size) / (1024.0 * 1024.0))));
+        report.append(String.format("%n"));
+        return report.toString();
+    }
+
+    private static double exponent(Map<Long, Map<String, BenchmarkRecorder.Result>> resultsBySize, String endpoint, long smallest, long largest) {
+        if (smallest == largest) {
+            return Double.NaN;
+        }
+        double smallLatency = Math.max(1, resultsBySize.get(smallest).get(endpoint).getNanosPerOperation());
+        double largeLatency = Math.max(1, resultsBySize.get(largest).get(endpoint).getNanosPerOperation());
+        return Math.log(largeLatency / smallLatency) / Math.log((double) largest / smallest);
+    }
+
+    private static String scaling(double exponent, int sizes) {
+        if (sizes < 2) {
+            return "n/a";
+        }
+        if (exponent < FLAT_EXPONENT) {
+            return "flat";
+        }
+        return exponent < LINEAR_EXPONENT ? "sublinear" : "linear";
+    }
+
+    private interface RequestFactory {
+        RequestBuilder create();
+    }
+}
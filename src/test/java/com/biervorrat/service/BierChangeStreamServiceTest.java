@@ -0,0 +1,255 @@
+package com.biervorrat.service;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.config.BiervorratProperties;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.enums.BierType;
+import com.biervorrat.event.BierChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class BierChangeStreamServiceTest {
+
+    private static final int BUFFER_SIZE = 4;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BierChangeStreamService bierChangeStreamService;
+
+    @BeforeEach
+    void setUp() {
+        BiervorratProperties properties = new BiervorratProperties();
+        properties.getChangeStream().setBufferSize(BUFFER_SIZE);
+        bierChangeStreamService = new BierChangeStreamService(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bierChangeStreamService.stop();
+    }
+
+    @Test
+    void whenSubscribersFilterByIdTypeOrBrandThenOnlyMatchingChangesAreDelivered() throws Exception {
+        BierDTO brahma = BierDTOBuilder.builder().id(1L).name("Brahma").type(BierType.LAGER).build().toBierDTO();
+        BierDTO colorado = BierDTOBuilder.builder().id(2L).name("Colorado").brand("Colorado").type(BierType.IPA).build().toBierDTO();
+        RecordingSink byId = new RecordingSink(1);
+        RecordingSink byType = new RecordingSink(1);
+        RecordingSink byBrand = new RecordingSink(1);
+        RecordingSink everything = new RecordingSink(2);
+
+        bierChangeStreamService.subscribe(2L, null, null, byId);
+        bierChangeStreamService.subscribe(null, BierType.LAGER, null, byType);
+        bierChangeStreamService.subscribe(null, null, "Colorado", byBrand);
+        bierChangeStreamService.subscribe(null, null, null, everything);
+        bierChangeStreamService.onBierChange(BierChangeEvent.created(brahma, 1L));
+        bierChangeStreamService.onBierChange(BierChangeEvent.created(colorado, 2L));
+
+        assertThat(byId.awaitNames(), contains("Colorado"));
+        assertThat(byType.awaitNames(), contains("Brahma"));
+        assertThat(byBrand.awaitNames(), contains("Colorado"));
+        assertThat(everything.awaitNames(), containsInAnyOrder("Brahma", "Colorado"));
+    }
+
+    @Test
+    void whenASubscriberIsSlowThenPendingChangesCoalesceToTheLatestAndOldestAreDropped() throws Exception {
+        BlockingSink slow = new BlockingSink();
+        bierChangeStreamService.subscribe(null, null, null, slow);
+
+        bierChangeStreamService.onBierChange(quantityChange(1L, 1));
+        slow.entered.await(5, TimeUnit.SECONDS);
+        for (long id = 3; id <= 7; id++) {
+            bierChangeStreamService.onBierChange(quantityChange(id, 1));
+        }
+        for (int quantity = 2; quantity <= 5; quantity++) {
+            bierChangeStreamService.onBierChange(quantityChange(2L, quantity));
+        }
+        slow.release.countDown();
+
+        List<BierChangeEvent> received = slow.awaitReceived(1 + BUFFER_SIZE);
+        assertThat(received.stream().map(event -> event.getBier().getId()).collect(Collectors.toList()), contains(1L, 5L, 6L, 7L, 2L));
+        assertThat(received.get(BUFFER_SIZE).getBier().getQuantity(), is(equalTo(5)));
+        assertThat(meterRegistry.get("biers.stream.dropped").counter().count(), is(equalTo(2.0)));
+    }
+
+    @Test
+    void whenThousandsOfSubscribersListenThenEveryOneReceivesEveryChangeWithoutBlockingTheWriter() throws Exception {
+        int subscriberCount = 5_000;
+        int changes = BUFFER_SIZE;
+        BlockingSink stuck = new BlockingSink();
+        bierChangeStreamService.subscribe(null, null, null, stuck);
+        List<RecordingSink> sinks = new ArrayList<>();
+        for (int i = 0; i < subscriberCount; i++) {
+            RecordingSink sink = new RecordingSink(changes);
+            sinks.add(sink);
+            bierChangeStreamService.subscribe(null, null, "Ambev", sink);
+        }
+
+        long start = System.nanoTime();
+        for (long id = 1; id <= changes; id++) {
+            bierChangeStreamService.onBierChange(quantityChange(id, 1));
+        }
+        long publishMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        for (RecordingSink sink : sinks) {
+            assertThat(sink.awaitNames().size(), is(equalTo(changes)));
+        }
+        assertThat(publishMillis, is(lessThan(5_000L)));
+        assertThat(bierChangeStreamService.subscriberCount(), is(equalTo(subscriberCount + 1)));
+        stuck.release.countDown();
+    }
+
+    @Test
+    void whenMoreSubscribersStallThanThereAreSendersThenTheyAreEvictedAndOthersStillReceiveChanges() throws Exception {
+        BiervorratProperties properties = new BiervorratProperties();
+        properties.getChangeStream().setSenderThreads(2);
+        properties.getChangeStream().setSendTimeout(Duration.ofMillis(100));
+        bierChangeStreamService.stop();
+        bierChangeStreamService = new BierChangeStreamService(properties, meterRegistry);
+        List<StalledSink> stalledSinks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            StalledSink stalled = new StalledSink();
+            stalledSinks.add(stalled);
+            bierChangeStreamService.subscribe(null, null, null, stalled);
+        }
+        RecordingSink healthy = new RecordingSink(2);
+        bierChangeStreamService.subscribe(null, null, null, healthy);
+
+        bierChangeStreamService.onBierChange(quantityChange(1L, 1));
+        bierChangeStreamService.onBierChange(quantityChange(2L, 1));
+
+        assertThat(healthy.awaitNames(), containsInAnyOrder("Bier 1", "Bier 2"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (bierChangeStreamService.subscriberCount() > 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(bierChangeStreamService.subscriberCount(), is(equalTo(1)));
+        assertThat(meterRegistry.get("biers.stream.stalled").counter().count(), is(equalTo(5.0)));
+
+        stalledSinks.forEach(stalled -> stalled.release.countDown());
+        for (StalledSink stalled : stalledSinks) {
+            assertThat(stalled.closed.await(5, TimeUnit.SECONDS), is(true));
+        }
+    }
+
+    @Test
+    void whenASinkFailsThenTheSubscriberIsRemoved() throws Exception {
+        CountDownLatch closed = new CountDownLatch(1);
+        bierChangeStreamService.subscribe(null, null, null, new BierChangeSink() {
+            @Override
+            public void send(BierChangeEvent event) throws IOException {
+                throw new IOException("client gone");
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        });
+
+        bierChangeStreamService.onBierChange(quantityChange(1L, 1));
+
+        assertThat(closed.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(bierChangeStreamService.subscriberCount(), is(equalTo(0)));
+    }
+
+    private BierChangeEvent quantityChange(Long id, int quantity) {
+        BierDTO bierDTO = BierDTOBuilder.builder().id(id).name("Bier " + id).quantity(quantity).build().toBierDTO();
+        return BierChangeEvent.quantityChanged(bierDTO, 1);
+    }
+
+    private static class RecordingSink implements BierChangeSink {
+
+        private final Queue<BierChangeEvent> received = new ConcurrentLinkedQueue<>();
+        private final CountDownLatch expected;
+
+        private RecordingSink(int expectedChanges) {
+            this.expected = new CountDownLatch(expectedChanges);
+        }
+
+        @Override
+        public void send(BierChangeEvent event) {
+            received.add(event);
+            expected.countDown();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        List<String> awaitNames() throws InterruptedException {
+            expected.await(10, TimeUnit.SECONDS);
+            return received.stream().map(event -> event.getBier().getName()).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Ignores interrupts, like a write blocked on a client that stopped reading.
+     */
+    private static class StalledSink implements BierChangeSink {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void send(BierChangeEvent event) {
+            boolean released = false;
+            while (!released) {
+                try {
+                    released = release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // keep blocking
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+
+    private static class BlockingSink implements BierChangeSink {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final Queue<BierChangeEvent> received = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void send(BierChangeEvent event) throws IOException {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            received.add(event);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        List<BierChangeEvent> awaitReceived(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (received.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            return new ArrayList<>(received);
+        }
+    }
+}
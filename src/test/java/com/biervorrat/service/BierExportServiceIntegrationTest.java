@@ -0,0 +1,124 @@
+package com.biervorrat.service;
+
+import com.biervorrat.enums.BierFileFormat;
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.utils.BierDataGenerator;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.startsWith;
+
+@SpringBootTest
+public class BierExportServiceIntegrationTest {
+
+    private static final int LARGE_DATASET_ROWS = 200_000;
+    private static final long MAX_RETAINED_HEAP_GROWTH = 24L * 1024 * 1024;
+
+    @Autowired
+    private BierExportService bierExportService;
+
+    @Autowired
+    private BierRepository bierRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        bierRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void whenCsvIsExportedThenHeaderAndOneLinePerBierAreWritten() throws Exception {
+        new BierDataGenerator(jdbcTemplate).generate(3);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long exported = bierExportService.exportBiers(outputStream, BierFileFormat.CSV);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(exported, is(equalTo(3L)));
+        assertThat(lines.length, is(equalTo(4)));
+        assertThat(lines[0], is(equalTo("id,name,brand,max,quantity,type")));
+    }
+
+    @Test
+    void whenLargeInventoryIsExportedThenPersistenceContextAndHeapStayFlat() throws Exception {
+        new BierDataGenerator(jdbcTemplate).generate(LARGE_DATASET_ROWS);
+        HeapSamplingOutputStream outputStream = new HeapSamplingOutputStream();
+
+        long exported = bierExportService.exportBiers(outputStream, BierFileFormat.NDJSON);
+
+        assertThat(exported, is(equalTo((long) LARGE_DATASET_ROWS)));
+        assertThat(outputStream.lines, is(equalTo(LARGE_DATASET_ROWS - 1L)));
+        assertThat(outputStream.maxManagedEntities, is(lessThanOrEqualTo(1)));
+        assertThat(outputStream.retainedHeapGrowth(), is(lessThan(MAX_RETAINED_HEAP_GROWTH)));
+    }
+
+    @Test
+    void whenNdjsonIsExportedThenEachLineIsABier() throws Exception {
+        new BierDataGenerator(jdbcTemplate).generate(2);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        bierExportService.exportBiers(outputStream, BierFileFormat.NDJSON);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines.length, is(equalTo(2)));
+        assertThat(lines[1], startsWith("{\"id\":"));
+    }
+
+    private class HeapSamplingOutputStream extends OutputStream {
+
+        private static final int SAMPLE_EVERY_LINES = 20_000;
+
+        private long lines;
+        private int maxManagedEntities;
+        private long firstRetainedHeap = -1;
+        private long lastRetainedHeap;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n' && ++lines % SAMPLE_EVERY_LINES == 0) {
+                sample();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(bytes[i]);
+            }
+        }
+
+        private void sample() {
+            int managedEntities = entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+            maxManagedEntities = Math.max(maxManagedEntities, managedEntities);
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+            lastRetainedHeap = runtime.totalMemory() - runtime.freeMemory();
+            if (firstRetainedHeap < 0) {
+                firstRetainedHeap = lastRetainedHeap;
+            }
+        }
+
+        private long retainedHeapGrowth() {
+            return lastRetainedHeap - firstRetainedHeap;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.biervorrat.service;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.enums.BierFileFormat;
+import com.biervorrat.mapper.BierMapper;
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.stock.StockEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BierExportServiceTest {
+
+    @Mock
+    private BierRepository bierRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private StockEngine stockEngine;
+
+    @InjectMocks
+    private BierExportService bierExportService;
+
+    private final BierMapper bierMapper = BierMapper.INSTANCE;
+
+    @Test
+    void whenBiersAreExportedThenEachRowCarriesTheStockEngineQuantity() throws Exception {
+        BierDTO storedBierDTO = BierDTOBuilder.builder().quantity(10).build().toBierDTO();
+        BierDTO currentBierDTO = BierDTOBuilder.builder().quantity(25).build().toBierDTO();
+        when(bierRepository.streamAllByOrderById()).thenReturn(Stream.of(bierMapper.toModel(storedBierDTO)));
+        when(stockEngine.currentState(storedBierDTO)).thenReturn(currentBierDTO);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        bierExportService.exportBiers(outputStream, BierFileFormat.NDJSON);
+
+        BierDTO exportedBierDTO = objectMapper.readValue(outputStream.toString(StandardCharsets.UTF_8), BierDTO.class);
+        assertThat(exportedBierDTO, is(equalTo(currentBierDTO)));
+    }
+}
@@ -0,0 +1,97 @@
+package com.biervorrat.service;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.dto.BierImportSummaryDTO;
+import com.biervorrat.entity.Bier;
+import com.biervorrat.enums.BierFileFormat;
+import com.biervorrat.repository.BierRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest(properties = "biervorrat.bulk-import.chunk-size=7")
+public class BierImportServiceIntegrationTest {
+
+    @Autowired
+    private BierImportService bierImportService;
+
+    @Autowired
+    private BierExportService bierExportService;
+
+    @Autowired
+    private BierService bierService;
+
+    @Autowired
+    private BierRepository bierRepository;
+
+    @AfterEach
+    void tearDown() {
+        bierRepository.deleteAll();
+    }
+
+    @Test
+    void whenNdjsonIsImportedThenValidRowsAreInsertedAndDuplicatesAndInvalidRowsAreCounted() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            ndjson.append(String.format("{\"name\":\"Bier %d\",\"brand\":\"Ambev\",\"max\":50,\"quantity\":10,\"type\":\"LAGER\"}%n", i));
+        }
+        ndjson.append("{\"name\":\"Bier 3\",\"brand\":\"Ambev\",\"max\":50,\"quantity\":10,\"type\":\"LAGER\"}\n");
+        ndjson.append("{\"name\":\"Bier 99\",\"brand\":\"Ambev\",\"max\":50,\"quantity\":10,\"type\":\"PILSEN\"}\n");
+        ndjson.append("{\"name\":\"Bier 98\",\"brand\":\"Ambev\",\"max\":900,\"quantity\":10,\"type\":\"LAGER\"}\n");
+        ndjson.append("not json\n");
+
+        BierImportSummaryDTO summary = bierImportService.importBiers(asStream(ndjson.toString()), BierFileFormat.NDJSON);
+
+        assertThat(summary.getInserted(), is(equalTo(20L)));
+        assertThat(summary.getDuplicates(), is(equalTo(1L)));
+        assertThat(summary.getInvalid(), is(equalTo(3L)));
+        assertThat(bierRepository.count(), is(equalTo(20L)));
+    }
+
+    @Test
+    void whenCsvIsImportedThenRowsAreMappedByHeader() throws Exception {
+        String csv = "type,name,brand,max,quantity\n" +
+                "IPA,Colorado Indica,Colorado,100,20\n" +
+                "STOUT,Guinness,Diageo,60,abc\n" +
+                "\n" +
+                "WEISS,Paulaner,Paulaner,80,40\n";
+
+        BierImportSummaryDTO summary = bierImportService.importBiers(asStream(csv), BierFileFormat.CSV);
+
+        assertThat(summary.getInserted(), is(equalTo(2L)));
+        assertThat(summary.getInvalid(), is(equalTo(1L)));
+        Optional<Bier> paulaner = bierRepository.findByName("Paulaner");
+        assertThat(paulaner.isPresent(), is(true));
+        assertThat(paulaner.get().getQuantity(), is(equalTo(40)));
+    }
+
+    @Test
+    void whenAnExportedCsvIsImportedThenQuotedNamesSurviveTheRoundTrip() throws Exception {
+        String quotedName = "Bohemia, \"Puro Malte\"\nEdição 2021";
+        bierService.createBier(BierDTOBuilder.builder().id(null).name(quotedName).build().toBierDTO());
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        bierExportService.exportBiers(csv, BierFileFormat.CSV);
+        bierRepository.deleteAll();
+
+        BierImportSummaryDTO summary = bierImportService.importBiers(new ByteArrayInputStream(csv.toByteArray()), BierFileFormat.CSV);
+
+        assertThat(summary.getInserted(), is(equalTo(1L)));
+        assertThat(summary.getInvalid(), is(equalTo(0L)));
+        assertThat(bierRepository.findByName(quotedName).isPresent(), is(true));
+    }
+
+    private InputStream asStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,115 @@
+package com.biervorrat.service;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.cache.BierNameRegistry;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.entity.Bier;
+import com.biervorrat.exception.BierAlreadyRegisteredException;
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.repository.BierTombstoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest
+public class BierNameRegistryConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS_PER_THREAD = 50;
+    private static final String[] NAMES = {"Brahma", "Skol", "Heineken", "Colorado"};
+
+    @Autowired
+    private BierService bierService;
+
+    @Autowired
+    private BierNameRegistry bierNameRegistry;
+
+    @Autowired
+    private BierRepository bierRepository;
+
+    @Autowired
+    private BierTombstoneRepository bierTombstoneRepository;
+
+    @BeforeEach
+    void setUp() {
+        bierNameRegistry.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bierRepository.deleteAll();
+        bierTombstoneRepository.deleteAll();
+    }
+
+    @Test
+    void whenCreatesAndDeletesOfTheSameNamesRaceThenARegisteredBierIsNeverReportedAbsent() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger missed = new AtomicInteger();
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int offset = thread;
+            Callable<Void> worker = () -> {
+                start.await();
+                for (int round = 0; round < ROUNDS_PER_THREAD; round++) {
+                    String name = NAMES[(offset + round) % NAMES.length];
+                    BierDTO savedBier;
+                    try {
+                        savedBier = bierService.createBier(BierDTOBuilder.builder().id(null).name(name).build().toBierDTO());
+                    } catch (BierAlreadyRegisteredException | DataIntegrityViolationException e) {
+                        continue;
+                    }
+                    created.incrementAndGet();
+                    if (bierNameRegistry.isDefinitelyAbsent(name)) {
+                        missed.incrementAndGet();
+                    }
+                    bierService.deleteById(savedBier.getId());
+                }
+                return null;
+            };
+            futures.add(executor.submit(worker));
+        }
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(created.get(), is(greaterThan(0)));
+        assertThat(missed.get(), is(equalTo(0)));
+        for (Bier bier : bierRepository.findAll()) {
+            assertThat(bierNameRegistry.isDefinitelyAbsent(bier.getName()), is(false));
+        }
+    }
+
+    @Test
+    void whenUnknownNameIsLookedUpThenTheRegistryAnswersAndARecreatedNameIsFoundAgain() throws Exception {
+        BierDTO bierDTO = bierService.createBier(BierDTOBuilder.builder().id(null).name("Brahma").build().toBierDTO());
+        bierService.deleteById(bierDTO.getId());
+
+        assertThat(bierNameRegistry.isDefinitelyAbsent("Brahma"), is(true));
+
+        bierService.createBier(BierDTOBuilder.builder().id(null).name("Brahma").build().toBierDTO());
+
+        assertThat(bierService.findByName("Brahma").getName(), is(equalTo("Brahma")));
+    }
+}
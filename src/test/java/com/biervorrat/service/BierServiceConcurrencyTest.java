@@ -0,0 +1,113 @@
+package com.biervorrat.service;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.exception.BierStockExceededException;
+import com.biervorrat.repository.BierRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest
+public class BierServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BierService bierService;
+
+    @Autowired
+    private BierRepository bierRepository;
+
+    @AfterEach
+    void tearDown() {
+        bierRepository.deleteAll();
+    }
+
+    @Test
+    void whenManyThreadsIncrementAndDecrementTheSameBierThenNoUpdateIsLost() throws Exception {
+        BierDTO bierDTO = createBier(500, 250);
+        int operationsPerThread = 100;
+
+        AtomicInteger rejected = hammer(bierDTO.getId(), operationsPerThread, thread -> thread % 2 == 0 ? 1 : -1);
+
+        assertThat(rejected.get(), is(equalTo(0)));
+        assertThat(currentQuantity(bierDTO), is(equalTo(250)));
+    }
+
+    @Test
+    void whenManyThreadsIncrementBeyondMaxThenExactlyTheOverflowIsRejected() throws Exception {
+        BierDTO bierDTO = createBier(500, 0);
+        int operationsPerThread = 40;
+
+        AtomicInteger rejected = hammer(bierDTO.getId(), operationsPerThread, thread -> 1);
+
+        assertThat(rejected.get(), is(equalTo(THREADS * operationsPerThread - 500)));
+        assertThat(currentQuantity(bierDTO), is(equalTo(500)));
+    }
+
+    private BierDTO createBier(int max, int quantity) throws Exception {
+        BierDTO bierDTO = BierDTOBuilder.builder()
+                .id(null)
+                .max(max)
+                .quantity(quantity)
+                .build()
+                .toBierDTO();
+        return bierService.createBier(bierDTO);
+    }
+
+    private int currentQuantity(BierDTO bierDTO) throws Exception {
+        return bierService.findByName(bierDTO.getName()).getQuantity();
+    }
+
+    private AtomicInteger hammer(Long id, int operationsPerThread, DeltaForThread deltaForThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int delta = deltaForThread.delta(thread);
+            Callable<Void> worker = () -> {
+                start.await();
+                for (int i = 0; i < operationsPerThread; i++) {
+                    try {
+                        if (delta > 0) {
+                            bierService.increment(id, delta);
+                        } else {
+                            bierService.decrement(id, -delta);
+                        }
+                    } catch (BierStockExceededException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            };
+            futures.add(executor.submit(worker));
+        }
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        return rejected;
+    }
+
+    private interface DeltaForThread {
+        int delta(int thread);
+    }
+}
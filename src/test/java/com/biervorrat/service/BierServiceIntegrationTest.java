@@ -0,0 +1,287 @@
+package com.biervorrat.service;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.dto.BierChangesDTO;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.BierFieldsPageDTO;
+import com.biervorrat.dto.BierLookupRequestDTO;
+import com.biervorrat.dto.BierLookupResultDTO;
+import com.biervorrat.dto.BierPageDTO;
+import com.biervorrat.dto.StockAdjustmentDTO;
+import com.biervorrat.dto.StockRollupDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.enums.BierField;
+import com.biervorrat.enums.BierSortKey;
+import com.biervorrat.enums.BierType;
+import com.biervorrat.enums.StockAdjustmentMode;
+import com.biervorrat.exception.BierNotFoundException;
+import com.biervorrat.exception.BierStockExceededException;
+import com.biervorrat.exception.BierVersionMismatchException;
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.repository.BierTombstoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+public class BierServiceIntegrationTest {
+
+    @Autowired
+    private BierService bierService;
+
+    @Autowired
+    private BierRepository bierRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BierTombstoneRepository bierTombstoneRepository;
+
+    @AfterEach
+    void tearDown() {
+        bierRepository.deleteAll();
+        bierTombstoneRepository.deleteAll();
+    }
+
+    @Test
+    void whenLookupMixesNamesAndIdsThenFoundBiersAndMissingKeysAreReturned() throws Exception {
+        BierDTO brahma = bierService.createBier(BierDTOBuilder.builder().id(null).name("Brahma").build().toBierDTO());
+        BierDTO skol = bierService.createBier(BierDTOBuilder.builder().id(null).name("Skol").build().toBierDTO());
+
+        BierLookupResultDTO result = bierService.lookup(new BierLookupRequestDTO(
+                Arrays.asList("Brahma", "Heineken"), Arrays.asList(skol.getId(), brahma.getId(), -1L)));
+
+        assertThat(result.getFound(), containsInAnyOrder(brahma, skol));
+        assertThat(result.getMissingNames(), contains("Heineken"));
+        assertThat(result.getMissingIds(), contains(-1L));
+    }
+
+    @Test
+    void whenAllOrNothingStockAdjustmentFailsThenNoAdjustmentIsPersisted() throws Exception {
+        BierDTO brahma = bierService.createBier(BierDTOBuilder.builder().id(null).name("Brahma").build().toBierDTO());
+        BierDTO skol = bierService.createBier(BierDTOBuilder.builder().id(null).name("Skol").build().toBierDTO());
+        List<StockAdjustmentDTO> adjustments = Arrays.asList(
+                new StockAdjustmentDTO(brahma.getId(), 5),
+                new StockAdjustmentDTO(skol.getId(), -50));
+
+        assertThrows(BierStockExceededException.class, () -> bierService.adjustStock(adjustments, StockAdjustmentMode.ALL_OR_NOTHING));
+
+        assertThat(bierService.findByName("Brahma").getQuantity(), is(equalTo(brahma.getQuantity())));
+        assertThat(bierService.findByName("Skol").getQuantity(), is(equalTo(skol.getQuantity())));
+    }
+
+    @Test
+    void whenBestEffortStockAdjustmentPartiallyFailsThenValidAdjustmentsArePersisted() throws Exception {
+        BierDTO brahma = bierService.createBier(BierDTOBuilder.builder().id(null).name("Brahma").build().toBierDTO());
+        BierDTO skol = bierService.createBier(BierDTOBuilder.builder().id(null).name("Skol").build().toBierDTO());
+        List<StockAdjustmentDTO> adjustments = Arrays.asList(
+                new StockAdjustmentDTO(brahma.getId(), 5),
+                new StockAdjustmentDTO(skol.getId(), -50));
+
+        bierService.adjustStock(adjustments, StockAdjustmentMode.BEST_EFFORT);
+
+        assertThat(bierService.findByName("Brahma").getQuantity(), is(equalTo(brahma.getQuantity() + 5)));
+        assertThat(bierService.findByName("Skol").getQuantity(), is(equalTo(skol.getQuantity())));
+    }
+
+    @Test
+    void whenPagesAreFollowedByCursorThenEveryMatchingBierIsReturnedOnceInOrder() throws Exception {
+        for (int i = 0; i < 7; i++) {
+            BierType type = i % 2 == 0 ? BierType.IPA : BierType.STOUT;
+            bierService.createBier(BierDTOBuilder.builder().id(null).name("Bier " + (char) ('G' - i)).type(type).build().toBierDTO());
+        }
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            BierPageDTO page = bierService.listPage(BierSortKey.NAME, cursor, BierType.IPA, "Ambev", 3);
+            page.getItems().forEach(bierDTO -> names.add(bierDTO.getName()));
+            cursor = page.getNext();
+        } while (cursor != null);
+
+        assertThat(names, is(equalTo(Arrays.asList("Bier A", "Bier C", "Bier E", "Bier G"))));
+    }
+
+    @Test
+    void whenPageIsFollowedByIdCursorThenTheNextPageStartsAfterTheLastId() throws Exception {
+        BierDTO first = bierService.createBier(BierDTOBuilder.builder().id(null).name("Brahma").build().toBierDTO());
+        BierDTO second = bierService.createBier(BierDTOBuilder.builder().id(null).name("Skol").build().toBierDTO());
+
+        BierPageDTO firstPage = bierService.listPage(BierSortKey.ID, null, null, null, 1);
+        BierPageDTO secondPage = bierService.listPage(BierSortKey.ID, firstPage.getNext(), null, null, 1);
+
+        assertThat(firstPage.getItems().get(0).getId(), is(equalTo(first.getId())));
+        assertThat(secondPage.getItems().get(0).getId(), is(equalTo(second.getId())));
+        assertThat(secondPage.getNext(), is(nullValue()));
+    }
+
+    @Test
+    void whenSparsePagesAreFollowedByNameCursorThenOnlyTheRequestedFieldsAreReturned() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            bierService.createBier(BierDTOBuilder.builder().id(null).name("Bier " + (char) ('E' - i)).build().toBierDTO());
+        }
+        Set<BierField> fields = EnumSet.of(BierField.QUANTITY, BierField.TYPE);
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        String cursor = null;
+        do {
+            BierFieldsPageDTO page = bierService.listPage(BierSortKey.NAME, cursor, null, null, 2, fields);
+            items.addAll(page.getItems());
+            cursor = page.getNext();
+        } while (cursor != null);
+
+        assertThat(items.size(), is(equalTo(5)));
+        assertThat(items.get(0).keySet(), contains("quantity", "type"));
+    }
+
+    @Test
+    void whenSparseBierIsLoadedThenUnrequestedColumnsAreNotSelected() throws Exception {
+        bierService.createBier(BierDTOBuilder.builder().id(null).name("Brahma").build().toBierDTO());
+
+        BierDTO sparseBier = bierRepository.findFieldsByName("Brahma", EnumSet.of(BierField.QUANTITY)).orElseThrow().getBier();
+
+        assertThat(sparseBier.getId(), is(notNullValue()));
+        assertThat(sparseBier.getName(), is(nullValue()));
+        assertThat(sparseBier.getBrand(), is(nullValue()));
+        assertThat(sparseBier.getType(), is(nullValue()));
+    }
+
+    @Test
+    void whenStockIsIncrementedAsynchronouslyThenTheNewQuantityIsPersisted() throws Exception {
+        BierDTO brahma = bierService.createBier(BierDTOBuilder.builder().id(null).name("Brahma").build().toBierDTO());
+
+        BierDTO incremented = bierService.incrementAsync(brahma.getId(), 5).get();
+
+        assertThat(incremented.getQuantity(), is(equalTo(brahma.getQuantity() + 5)));
+        assertThat(bierService.findByName("Brahma").getQuantity(), is(equalTo(brahma.getQuantity() + 5)));
+    }
+
+    @Test
+    void whenStockIsDecrementedAsynchronouslyBelowZeroThenTheFutureFailsWithStockExceeded() throws Exception {
+        BierDTO brahma = bierService.createBier(BierDTOBuilder.builder().id(null).name("Brahma").build().toBierDTO());
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> bierService.decrementAsync(brahma.getId(), brahma.getQuantity() + 1).get());
+
+        assertThat(exception.getCause(), is(instanceOf(BierStockExceededException.class)));
+        assertThat(bierService.findByName("Brahma").getQuantity(), is(equalTo(brahma.getQuantity())));
+    }
+
+    @Test
+    void whenCachedBierStockIsAdjustedThenTheNextLookupReturnsTheNewQuantity() throws Exception {
+        BierDTO brahma = bierService.createBier(BierDTOBuilder.builder().id(null).name("Brahma").build().toBierDTO());
+        bierService.findByName("Brahma");
+
+        bierService.increment(brahma.getId(), 5);
+        assertThat(bierService.findByName("Brahma").getQuantity(), is(equalTo(brahma.getQuantity() + 5)));
+
+        bierService.deleteById(brahma.getId());
+        assertThrows(BierNotFoundException.class, () -> bierService.findByName("Brahma"));
+    }
+
+    @Test
+    void whenBiersAreCreatedAdjustedAndDeletedThenTheSummaryFollowsCommittedChanges() throws Exception {
+        bierService.rebuildSummary();
+        BierDTO brahma = bierService.createBier(BierDTOBuilder.builder().id(null).name("Brahma").max(50).quantity(10).build().toBierDTO());
+        BierDTO skol = bierService.createBier(BierDTOBuilder.builder().id(null).name("Skol").max(50).quantity(20).build().toBierDTO());
+        bierService.increment(brahma.getId(), 15);
+        bierService.adjustStock(Arrays.asList(new StockAdjustmentDTO(skol.getId(), -5), new StockAdjustmentDTO(skol.getId(), 80)), StockAdjustmentMode.BEST_EFFORT);
+        assertThrows(BierStockExceededException.class, () -> bierService.decrement(brahma.getId(), 100));
+
+        assertThat(bierService.summary().getByBrand(), contains(new StockRollupDTO("Ambev", 2, 40, 100, 0.4)));
+
+        bierService.deleteById(skol.getId());
+
+        assertThat(bierService.summary().getByBrand(), contains(new StockRollupDTO("Ambev", 1, 25, 50, 0.5)));
+        assertThat(bierService.rebuildSummary(), is(equalTo(bierService.summary())));
+    }
+
+    @Test
+    void whenLowStockIsRequestedThenBiersBelowTheThresholdAreReturnedEmptiestFirst() throws Exception {
+        BierDTO brahma = bierService.createBier(BierDTOBuilder.builder().id(null).name("Brahma").max(100).quantity(15).build().toBierDTO());
+        bierService.createBier(BierDTOBuilder.builder().id(null).name("Skol").max(50).quantity(5).build().toBierDTO());
+        bierService.createBier(BierDTOBuilder.builder().id(null).name("Antarctica").max(10).quantity(1).build().toBierDTO());
+        bierService.createBier(BierDTOBuilder.builder().id(null).name("Bohemia").max(10).quantity(9).build().toBierDTO());
+        bierService.decrement(brahma.getId(), 10);
+
+        List<BierDTO> lowStock = bierService.listLowStock(0.2, 2);
+
+        assertThat(lowStock.get(0).getName(), is(equalTo("Brahma")));
+        assertThat(lowStock.get(1).getName(), is(equalTo("Skol")));
+        assertThat(lowStock.size(), is(equalTo(2)));
+        assertThat(bierService.listLowStock(0.2, null).size(), is(equalTo(3)));
+    }
+
+    @Test
+    void whenLowStockIsQueriedThenTheFillRatioIndexIsUsed() {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id FROM bier WHERE fill_ratio < 0.2 ORDER BY fill_ratio, id LIMIT 10", String.class);
+
+        assertThat(plan.toUpperCase(), containsString("IDX_BIER_FILL_RATIO_ID"));
+    }
+
+    @Test
+    void whenAFilteredPageIsSortedByNameThenTheFilterAndNameIndexesAreUsed() {
+        String typePlan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id FROM bier WHERE type = 'IPA' AND name > 'Brahma' ORDER BY name LIMIT 10", String.class);
+        String brandPlan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id FROM bier WHERE brand = 'Ambev' AND name > 'Brahma' ORDER BY name LIMIT 10", String.class);
+
+        assertThat(typePlan.toUpperCase(), containsString("IDX_BIER_TYPE_NAME_ID"));
+        assertThat(brandPlan.toUpperCase(), containsString("IDX_BIER_BRAND_NAME_ID"));
+    }
+
+    @Test
+    void whenAClientResumesFromItsHighWaterMarkThenOnlyLaterChangesAreReturned() throws Exception {
+        BierDTO brahma = bierService.createBier(BierDTOBuilder.builder().id(null).name("Brahma").build().toBierDTO());
+        BierDTO skol = bierService.createBier(BierDTOBuilder.builder().id(null).name("Skol").build().toBierDTO());
+        long highWaterMark = bierService.listChanges(0, null).getHighWaterMark();
+
+        bierService.increment(brahma.getId(), 5);
+        bierService.deleteById(skol.getId());
+        BierChangesDTO changes = bierService.listChanges(highWaterMark, null);
+
+        assertThat(changes.getChanged().size(), is(equalTo(1)));
+        assertThat(changes.getChanged().get(0).getQuantity(), is(equalTo(brahma.getQuantity() + 5)));
+        assertThat(changes.getDeleted(), contains(skol.getId()));
+        assertThat(bierService.listChanges(changes.getHighWaterMark(), null).getChanged(), is(empty()));
+    }
+
+    @Test
+    void whenABierChangesThenItsVersionAndTheListVersionMove() throws Exception {
+        BierDTO brahma = bierService.createBier(BierDTOBuilder.builder().id(null).name("Brahma").build().toBierDTO());
+        long version = bierService.findVersionedByName("Brahma").getVersion();
+        long listVersion = bierService.listVersion();
+
+        VersionedBierDTO incremented = bierService.incrementIfCurrent(brahma.getId(), 5, version);
+
+        assertThat(bierService.findVersionedByName("Brahma").getVersion(), is(equalTo(incremented.getVersion())));
+        assertThat(bierService.listVersion(), is(greaterThan(listVersion)));
+        assertThrows(BierVersionMismatchException.class, () -> bierService.incrementIfCurrent(brahma.getId(), 5, version));
+        assertThat(bierService.findByName("Brahma").getQuantity(), is(equalTo(brahma.getQuantity() + 5)));
+    }
+}
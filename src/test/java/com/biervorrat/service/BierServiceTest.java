@@ -1,22 +1,56 @@
 package com.biervorrat.service;
 
 import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.changes.ChangeSequencer;
+import com.biervorrat.cache.BierNameCache;
+import com.biervorrat.cache.BierNameRegistry;
+import com.biervorrat.config.BiervorratProperties;
+import com.biervorrat.dto.BierChangesDTO;
 import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.BierLookupRequestDTO;
+import com.biervorrat.dto.BierLookupResultDTO;
+import com.biervorrat.dto.BierPageDTO;
+import com.biervorrat.dto.BierStockSummaryDTO;
+import com.biervorrat.dto.StockAdjustmentDTO;
+import com.biervorrat.dto.StockAdjustmentResultDTO;
+import com.biervorrat.dto.VersionedBierDTO;
 import com.biervorrat.entity.Bier;
+import com.biervorrat.entity.BierTombstone;
+import com.biervorrat.enums.BierField;
+import com.biervorrat.enums.BierSortKey;
+import com.biervorrat.enums.BierType;
+import com.biervorrat.enums.StockAdjustmentMode;
+import com.biervorrat.enums.StockAdjustmentStatus;
+import com.biervorrat.event.BierChangeEvent;
 import com.biervorrat.exception.BierAlreadyRegisteredException;
+import com.biervorrat.exception.BierLookupTooLargeException;
 import com.biervorrat.exception.BierNotFoundException;
 import com.biervorrat.exception.BierStockExceededException;
+import com.biervorrat.exception.InvalidBierCursorException;
+import com.biervorrat.hotkeys.BierHotKeyTracker;
 import com.biervorrat.mapper.BierMapper;
+import com.biervorrat.repository.BierPageCursor;
 import com.biervorrat.repository.BierRepository;
+import com.biervorrat.repository.BierTombstoneRepository;
+import com.biervorrat.rollup.BierStockRollup;
+import com.biervorrat.stock.StockEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -30,6 +64,24 @@ public class BierServiceTest {
     private final BierMapper bierMapper = BierMapper.INSTANCE;
     @Mock
     private BierRepository bierRepository;
+    @Spy
+    private BiervorratProperties properties = new BiervorratProperties();
+    @Spy
+    private BierNameCache bierNameCache = new BierNameCache(properties, new SimpleMeterRegistry());
+    @Mock
+    private BierNameRegistry bierNameRegistry;
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private StockEngine stockEngine;
+    @Mock
+    private BierStockRollup bierStockRollup;
+    @Mock
+    private BierTombstoneRepository bierTombstoneRepository;
+    @Mock
+    private ChangeSequencer changeSequencer;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private BierHotKeyTracker bierHotKeyTracker;
     @InjectMocks
     private BierService bierService;
 
@@ -48,6 +100,21 @@ public class BierServiceTest {
         assertThat(createdBierDTO.getId(), is(equalTo(bierDTO.getId())));
     }
 
+    @Test
+    void whenNewBierIsCreatedThenACreatedEventIsPublished() throws BierAlreadyRegisteredException {
+        BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        Bier expectedSavedBier = bierMapper.toModel(bierDTO);
+        expectedSavedBier.setChangeSeq(7L);
+
+        when(bierRepository.findByName(bierDTO.getName())).thenReturn(Optional.empty());
+        when(changeSequencer.next()).thenReturn(7L);
+        when(bierRepository.save(expectedSavedBier)).thenReturn(expectedSavedBier);
+
+        bierService.createBier(bierDTO);
+
+        verify(eventPublisher, times(1)).publishEvent(BierChangeEvent.created(bierDTO, 7L));
+    }
+
     @Test
     void whenAlreadyRegisteredBierInformedThenAnExceptionShouldBeThrown() {
         BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
@@ -61,20 +128,122 @@ public class BierServiceTest {
     @Test
     void whenValidBierNameIsGivenThenReturnABier() throws BierNotFoundException {
         BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
-        Bier expectedFoundBier = bierMapper.toModel(expectedBierDTO);
 
-        when(bierRepository.findByName(expectedBierDTO.getName())).thenReturn(Optional.of(expectedFoundBier));
+        when(bierRepository.findVersionedDTOByName(expectedBierDTO.getName())).thenReturn(Optional.of(new VersionedBierDTO(expectedBierDTO, 1L)));
+
+        BierDTO foundBierDTO = bierService.findByName(expectedBierDTO.getName());
+
+        assertThat(foundBierDTO, is(equalTo(expectedBierDTO)));
+    }
+
+    @Test
+    void whenSameBierNameIsFoundTwiceThenTheSecondLookupIsServedFromCache() throws BierNotFoundException {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+
+        when(bierRepository.findVersionedDTOByName(expectedBierDTO.getName())).thenReturn(Optional.of(new VersionedBierDTO(expectedBierDTO, 1L)));
 
+        bierService.findByName(expectedBierDTO.getName());
         BierDTO foundBierDTO = bierService.findByName(expectedBierDTO.getName());
 
         assertThat(foundBierDTO, is(equalTo(expectedBierDTO)));
+        verify(bierRepository, times(1)).findVersionedDTOByName(expectedBierDTO.getName());
+    }
+
+    @Test
+    void whenSparseBierIsNotCachedThenOnlyTheRequestedFieldsAreLoaded() throws BierNotFoundException {
+        BierDTO sparseBierDTO = new BierDTO();
+        sparseBierDTO.setId(1L);
+        sparseBierDTO.setQuantity(10);
+        Set<BierField> fields = EnumSet.of(BierField.QUANTITY);
+
+        when(bierRepository.findFieldsByName("Brahma", fields)).thenReturn(Optional.of(new VersionedBierDTO(sparseBierDTO, 4L)));
+
+        VersionedBierDTO foundBier = bierService.findVersionedByName("Brahma", fields);
+
+        assertThat(foundBier.getBier(), is(equalTo(sparseBierDTO)));
+        assertThat(foundBier.getVersion(), is(equalTo(4L)));
+    }
+
+    @Test
+    void whenSparseBierIsCachedThenItIsServedWithoutAQuery() throws BierNotFoundException {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+
+        when(bierRepository.findVersionedDTOByName(expectedBierDTO.getName())).thenReturn(Optional.of(new VersionedBierDTO(expectedBierDTO, 1L)));
+
+        bierService.findByName(expectedBierDTO.getName());
+        VersionedBierDTO foundBier = bierService.findVersionedByName(expectedBierDTO.getName(), EnumSet.of(BierField.NAME, BierField.TYPE));
+
+        assertThat(foundBier.getBier(), is(equalTo(expectedBierDTO)));
+        assertThat(foundBier.getVersion(), is(equalTo(1L)));
+        verify(bierRepository, never()).findFieldsByName(any(), any());
+    }
+
+    @Test
+    void whenNameIsDefinitelyAbsentThenNotFoundIsThrownWithoutAQuery() {
+        when(bierNameRegistry.isDefinitelyAbsent("Unknown")).thenReturn(true);
+
+        assertThrows(BierNotFoundException.class, () -> bierService.findByName("Unknown"));
+        verifyNoInteractions(bierRepository);
+    }
+
+    @Test
+    void whenNewBierNameIsDefinitelyAbsentThenItIsCreatedWithoutADuplicateCheck() throws BierAlreadyRegisteredException {
+        BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        Bier expectedSavedBier = bierMapper.toModel(bierDTO);
+
+        when(bierNameRegistry.isDefinitelyAbsent(bierDTO.getName())).thenReturn(true);
+        when(bierRepository.save(expectedSavedBier)).thenReturn(expectedSavedBier);
+
+        bierService.createBier(bierDTO);
+
+        verify(bierRepository, never()).findByName(any());
+        verify(bierNameRegistry).register(bierDTO.getName(), bierDTO.getId());
+    }
+
+    @Test
+    void whenLookupIsCalledThenEachKeyTypeIsResolvedWithASingleQuery() throws BierLookupTooLargeException {
+        BierDTO brahma = BierDTOBuilder.builder().id(1L).name("Brahma").build().toBierDTO();
+        BierDTO skol = BierDTOBuilder.builder().id(2L).name("Skol").build().toBierDTO();
+
+        when(bierRepository.findDTOsByNameIn(Arrays.asList("Brahma", "Heineken"))).thenReturn(Collections.singletonList(brahma));
+        when(bierRepository.findDTOsByIdIn(Arrays.asList(2L, 3L))).thenReturn(Collections.singletonList(skol));
+
+        BierLookupResultDTO result = bierService.lookup(new BierLookupRequestDTO(Arrays.asList("Brahma", "Heineken"), Arrays.asList(1L, 2L, 3L)));
+
+        assertThat(result.getFound(), is(equalTo(Arrays.asList(brahma, skol))));
+        assertThat(result.getMissingNames(), is(equalTo(Collections.singletonList("Heineken"))));
+        assertThat(result.getMissingIds(), is(equalTo(Collections.singletonList(3L))));
+        verify(bierRepository, times(1)).findDTOsByNameIn(any());
+        verify(bierRepository, times(1)).findDTOsByIdIn(any());
+    }
+
+    @Test
+    void whenLookedUpNamesAreCachedThenNoNameQueryIsIssued() throws BierNotFoundException, BierLookupTooLargeException {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+
+        when(bierRepository.findVersionedDTOByName(expectedBierDTO.getName())).thenReturn(Optional.of(new VersionedBierDTO(expectedBierDTO, 1L)));
+
+        bierService.findByName(expectedBierDTO.getName());
+        BierLookupResultDTO result = bierService.lookup(new BierLookupRequestDTO(Collections.singletonList(expectedBierDTO.getName()), Collections.emptyList()));
+
+        assertThat(result.getFound(), is(equalTo(Collections.singletonList(expectedBierDTO))));
+        verify(bierRepository, never()).findDTOsByNameIn(any());
+        verify(bierRepository, never()).findDTOsByIdIn(any());
+    }
+
+    @Test
+    void whenLookupExceedsTheKeyLimitThenAnExceptionShouldBeThrown() {
+        properties.getLookup().setMaxKeys(2);
+
+        assertThrows(BierLookupTooLargeException.class, () -> bierService.lookup(new BierLookupRequestDTO(Arrays.asList("Brahma", "Skol"), Collections.singletonList(1L))));
+        verifyNoInteractions(bierRepository);
     }
 
     @Test
     void whenNotRegisteredBierNameIsGivenThenThrowAnException() {
         BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
 
-        when(bierRepository.findByName(expectedBierDTO.getName())).thenReturn(Optional.empty());
+        when(bierRepository.findVersionedDTOByName(expectedBierDTO.getName())).thenReturn(Optional.empty());
 
         assertThrows(BierNotFoundException.class, () -> bierService.findByName(expectedBierDTO.getName()));
     }
@@ -82,9 +251,8 @@ public class BierServiceTest {
     @Test
     void whenListBierIsCalledThenReturnAListOfBiers() {
         BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
-        Bier expectedFoundBier = bierMapper.toModel(expectedBierDTO);
 
-        when(bierRepository.findAll()).thenReturn(Collections.singletonList(expectedFoundBier));
+        when(bierRepository.findAllDTOs()).thenReturn(Collections.singletonList(expectedBierDTO));
 
         List<BierDTO> foundBierDTO = bierService.listAll();
 
@@ -94,13 +262,58 @@ public class BierServiceTest {
 
     @Test
     void whenListBierIsCalledThenReturnAnEmptyList() {
-        when(bierRepository.findAll()).thenReturn(Collections.EMPTY_LIST);
+        when(bierRepository.findAllDTOs()).thenReturn(Collections.EMPTY_LIST);
 
         List<BierDTO> foundBierDTO = bierService.listAll();
 
         assertThat(foundBierDTO, is(empty()));
     }
 
+    @Test
+    void whenPageIsFullThenReturnANextCursorAfterTheLastItem() throws InvalidBierCursorException {
+        BierDTO brahma = BierDTOBuilder.builder().id(1L).name("Brahma").build().toBierDTO();
+        BierDTO skol = BierDTOBuilder.builder().id(2L).name("Skol").build().toBierDTO();
+
+        when(bierRepository.findPage(BierSortKey.NAME, null, BierType.LAGER, null, 2)).thenReturn(Arrays.asList(brahma, skol));
+
+        BierPageDTO page = bierService.listPage(BierSortKey.NAME, null, BierType.LAGER, null, 1);
+
+        assertThat(page.getItems().size(), is(equalTo(1)));
+        assertThat(page.getItems().get(0).getName(), is(equalTo("Brahma")));
+        assertThat(BierPageCursor.decode(page.getNext()), is(equalTo(new BierPageCursor(BierSortKey.NAME, "Brahma"))));
+    }
+
+    @Test
+    void whenLastPageIsReachedThenNoNextCursorIsReturned() throws InvalidBierCursorException {
+        BierDTO skol = BierDTOBuilder.builder().id(2L).name("Skol").build().toBierDTO();
+        BierPageCursor cursor = new BierPageCursor(BierSortKey.ID, "1");
+        int defaultLimit = properties.getPagination().getDefaultLimit();
+
+        when(bierRepository.findPage(BierSortKey.ID, cursor, null, "Ambev", defaultLimit + 1)).thenReturn(Collections.singletonList(skol));
+
+        BierPageDTO page = bierService.listPage(BierSortKey.NAME, cursor.encode(), null, "Ambev", null);
+
+        assertThat(page.getItems().size(), is(equalTo(1)));
+        assertThat(page.getNext(), is(nullValue()));
+    }
+
+    @Test
+    void whenPageCursorIsInvalidThenThrowAnException() {
+        assertThrows(InvalidBierCursorException.class, () -> bierService.listPage(BierSortKey.ID, "not-a-cursor", null, null, null));
+    }
+
+    @Test
+    void whenSummaryIsRebuiltThenTheRebuiltTotalsAreReturned() {
+        BierStockSummaryDTO expectedSummary = new BierStockSummaryDTO(Collections.emptyList(), Collections.emptyList());
+
+        when(bierStockRollup.summary()).thenReturn(expectedSummary);
+
+        BierStockSummaryDTO summary = bierService.rebuildSummary();
+
+        assertThat(summary, is(equalTo(expectedSummary)));
+        verify(bierStockRollup, times(1)).rebuild();
+    }
+
     @Test
     void whenExclusionIsCalledWithValidIdThenABierShouldBeDeleted() throws BierNotFoundException {
         BierDTO expectedExcludedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
@@ -116,97 +329,99 @@ public class BierServiceTest {
     }
 
     @Test
-    void whenExclusionIsCalledWithInvalidIdThenExceptionShouldBeThrown() {
-        when(bierRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+    void whenBierIsDeletedThenATombstoneIsStampedWithTheNextChangeSequence() throws BierNotFoundException {
+        BierDTO expectedExcludedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
 
-        assertThrows(BierNotFoundException.class, () -> bierService.deleteById(INVALID_BEER_ID));
-    }
+        when(bierRepository.findById(expectedExcludedBierDTO.getId())).thenReturn(Optional.of(bierMapper.toModel(expectedExcludedBierDTO)));
+        when(changeSequencer.next()).thenReturn(42L);
 
-    @Test
-    void whenIncrementIsCalledThenIncrementBierStock() throws BierNotFoundException, BierStockExceededException {
-        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
-        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
-
-        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(expectedBier));
-        when(bierRepository.save(expectedBier)).thenReturn(expectedBier);
+        bierService.deleteById(expectedExcludedBierDTO.getId());
 
-        int quantityToIncrement = 10;
-        int expectedQuantityAfterIncrement = expectedBierDTO.getQuantity() + quantityToIncrement;
-        BierDTO incrementedBierDTO = bierService.increment(expectedBierDTO.getId(), quantityToIncrement);
+        verify(bierTombstoneRepository, times(1)).save(new BierTombstone(expectedExcludedBierDTO.getId(), 42L));
+    }
 
-        assertThat(incrementedBierDTO.getQuantity(), is(equalTo(expectedQuantityAfterIncrement)));
-        assertThat(expectedBierDTO.getMax(), is(greaterThan(expectedQuantityAfterIncrement)));
+    @Test
+    void whenChangesAreListedThenUpdatesAndDeletesAreMergedInSequenceOrder() {
+        Bier brahma = bierMapper.toModel(BierDTOBuilder.builder().id(1L).name("Brahma").build().toBierDTO());
+        brahma.setChangeSeq(11L);
+        Bier skol = bierMapper.toModel(BierDTOBuilder.builder().id(2L).name("Skol").build().toBierDTO());
+        skol.setChangeSeq(14L);
+        PageRequest page = PageRequest.of(0, 2);
+
+        when(changeSequencer.highWaterMark()).thenReturn(20L);
+        when(bierRepository.findChanges(10L, 20L, page)).thenReturn(Arrays.asList(brahma, skol));
+        when(bierTombstoneRepository.findChanges(10L, 20L, page)).thenReturn(Collections.singletonList(new BierTombstone(3L, 12L)));
+
+        BierChangesDTO changes = bierService.listChanges(10L, 2);
+
+        assertThat(changes.getChanged().size(), is(equalTo(1)));
+        assertThat(changes.getChanged().get(0).getName(), is(equalTo("Brahma")));
+        assertThat(changes.getDeleted(), contains(3L));
+        assertThat(changes.getHighWaterMark(), is(equalTo(12L)));
     }
 
     @Test
-    void whenIncrementIsGreatherThanMaxThenThrowException() {
-        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
-        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
+    void whenAllChangesFitInOnePageThenTheHighWaterMarkIsTheSequencerMark() {
+        when(changeSequencer.highWaterMark()).thenReturn(20L);
 
-        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(expectedBier));
+        BierChangesDTO changes = bierService.listChanges(10L, null);
 
-        int quantityToIncrement = 80;
-        assertThrows(BierStockExceededException.class, () -> bierService.increment(expectedBierDTO.getId(), quantityToIncrement));
+        assertThat(changes.getChanged(), is(empty()));
+        assertThat(changes.getHighWaterMark(), is(equalTo(20L)));
     }
 
     @Test
-    void whenIncrementIsCalledWithInvalidIdThenThrowException() {
-        int quantityToIncrement = 10;
-
+    void whenExclusionIsCalledWithInvalidIdThenExceptionShouldBeThrown() {
         when(bierRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
 
-        assertThrows(BierNotFoundException.class, () -> bierService.increment(INVALID_BEER_ID, quantityToIncrement));
+        assertThrows(BierNotFoundException.class, () -> bierService.deleteById(INVALID_BEER_ID));
     }
 
     @Test
-    void whenDecrementIsCalledThenDecrementBierStock() throws BierNotFoundException, BierStockExceededException {
+    void whenIncrementIsCalledThenTheStockEngineAppliesAPositiveDelta() throws BierNotFoundException, BierStockExceededException {
         BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
-        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
 
-        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(expectedBier));
-        when(bierRepository.save(expectedBier)).thenReturn(expectedBier);
+        when(stockEngine.adjust(expectedBierDTO.getId(), 10)).thenReturn(expectedBierDTO);
 
-        int quantityToDecrement = 5;
-        int expectedQuantityAfterDecrement = expectedBierDTO.getQuantity() - quantityToDecrement;
-        BierDTO incrementedBierDTO = bierService.decrement(expectedBierDTO.getId(), quantityToDecrement);
+        BierDTO incrementedBierDTO = bierService.increment(expectedBierDTO.getId(), 10);
 
-        assertThat(incrementedBierDTO.getQuantity(), is(equalTo(expectedQuantityAfterDecrement)));
-        assertThat(expectedQuantityAfterDecrement, is(greaterThan(0)));
+        assertThat(incrementedBierDTO, is(equalTo(expectedBierDTO)));
     }
 
     @Test
-    void whenDecrementIsCalledToEmptyStockThenEmptyBierStock() throws BierNotFoundException, BierStockExceededException {
+    void whenDecrementIsCalledThenTheStockEngineAppliesANegativeDelta() throws BierNotFoundException, BierStockExceededException {
         BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
-        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
 
-        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(expectedBier));
-        when(bierRepository.save(expectedBier)).thenReturn(expectedBier);
+        when(stockEngine.adjust(expectedBierDTO.getId(), -5)).thenReturn(expectedBierDTO);
 
-        int quantityToDecrement = 10;
-        int expectedQuantityAfterDecrement = expectedBierDTO.getQuantity() - quantityToDecrement;
-        BierDTO incrementedBierDTO = bierService.decrement(expectedBierDTO.getId(), quantityToDecrement);
+        BierDTO decrementedBierDTO = bierService.decrement(expectedBierDTO.getId(), 5);
 
-        assertThat(expectedQuantityAfterDecrement, is(equalTo(0)));
-        assertThat(expectedQuantityAfterDecrement, is(equalTo(incrementedBierDTO.getQuantity())));
+        assertThat(decrementedBierDTO, is(equalTo(expectedBierDTO)));
     }
 
     @Test
-    void whenDecrementIsLowerThanZeroThenThrowException() {
-        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
-        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
+    void whenStockIsAdjustedInBatchThenTheStockEngineReceivesTheWholeBatch() throws BierNotFoundException, BierStockExceededException {
+        List<StockAdjustmentDTO> adjustments = Collections.singletonList(new StockAdjustmentDTO(INVALID_BEER_ID, 10));
+        List<StockAdjustmentResultDTO> expectedResults = Collections.singletonList(
+                new StockAdjustmentResultDTO(INVALID_BEER_ID, 10, StockAdjustmentStatus.NOT_FOUND, null));
+
+        when(stockEngine.adjustAll(adjustments, StockAdjustmentMode.BEST_EFFORT)).thenReturn(expectedResults);
 
-        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(expectedBier));
+        List<StockAdjustmentResultDTO> results = bierService.adjustStock(adjustments, StockAdjustmentMode.BEST_EFFORT);
 
-        int quantityToDecrement = 80;
-        assertThrows(BierStockExceededException.class, () -> bierService.decrement(expectedBierDTO.getId(), quantityToDecrement));
+        assertThat(results, is(equalTo(expectedResults)));
     }
 
     @Test
-    void whenDecrementIsCalledWithInvalidIdThenThrowException() {
-        int quantityToDecrement = 10;
+    void whenTheStockEngineHoldsANewerQuantityThenListingsReturnIt() {
+        BierDTO storedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        BierDTO currentBierDTO = BierDTOBuilder.builder().quantity(3).build().toBierDTO();
 
-        when(bierRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+        when(bierRepository.findAllDTOs()).thenReturn(Collections.singletonList(storedBierDTO));
+        when(stockEngine.currentState(storedBierDTO)).thenReturn(currentBierDTO);
+
+        List<BierDTO> foundBierDTO = bierService.listAll();
 
-        assertThrows(BierNotFoundException.class, () -> bierService.decrement(INVALID_BEER_ID, quantityToDecrement));
+        assertThat(foundBierDTO.get(0).getQuantity(), is(equalTo(3)));
     }
 }
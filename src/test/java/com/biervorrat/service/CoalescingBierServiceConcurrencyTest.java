@@ -0,0 +1,7 @@
+package com.biervorrat.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = "biervorrat.stock.mode=coalescing")
+public class CoalescingBierServiceConcurrencyTest extends BierServiceConcurrencyTest {
+}
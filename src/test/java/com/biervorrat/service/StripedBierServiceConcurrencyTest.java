@@ -0,0 +1,7 @@
+package com.biervorrat.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = "biervorrat.stock.mode=striped")
+public class StripedBierServiceConcurrencyTest extends BierServiceConcurrencyTest {
+}
@@ -0,0 +1,123 @@
+package com.biervorrat.stock;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.changes.ChangeSequencer;
+import com.biervorrat.config.BiervorratProperties;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.entity.Bier;
+import com.biervorrat.exception.BierNotFoundException;
+import com.biervorrat.exception.BierStockExceededException;
+import com.biervorrat.mapper.BierMapper;
+import com.biervorrat.repository.BierRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CoalescingStockEngineTest {
+
+    private static final long INVALID_BEER_ID = 2L;
+    private final BierMapper bierMapper = BierMapper.INSTANCE;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Mock
+    private SynchronousStockEngine delegate;
+    @Mock
+    private BierRepository bierRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ChangeSequencer changeSequencer;
+    private CoalescingStockEngine stockEngine;
+
+    @BeforeEach
+    void setUp() {
+        BiervorratProperties properties = new BiervorratProperties();
+        properties.getStock().getCoalescing().setWindow(Duration.ofMillis(200));
+        properties.getStock().getCoalescing().setMaxBatchSize(8);
+        stockEngine = new CoalescingStockEngine(delegate, bierRepository, new TransactionTemplate(transactionManager),
+                eventPublisher, changeSequencer, properties, meterRegistry);
+    }
+
+    @Test
+    void whenASingleAdjustmentIsWithinBoundsThenItIsApplied() throws BierNotFoundException, BierStockExceededException {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
+
+        when(bierRepository.findAllByIdInForUpdate(Collections.singleton(expectedBierDTO.getId()))).thenReturn(Collections.singletonList(expectedBier));
+
+        BierDTO adjustedBierDTO = stockEngine.adjust(expectedBierDTO.getId(), 15);
+
+        assertThat(adjustedBierDTO.getQuantity(), is(equalTo(expectedBierDTO.getQuantity() + 15)));
+        assertThat(expectedBier.getQuantity(), is(equalTo(expectedBierDTO.getQuantity() + 15)));
+    }
+
+    @Test
+    void whenBierIsNotRegisteredThenThrowException() {
+        when(bierRepository.findAllByIdInForUpdate(Collections.singleton(INVALID_BEER_ID))).thenReturn(Collections.emptyList());
+
+        assertThrows(BierNotFoundException.class, () -> stockEngine.adjust(INVALID_BEER_ID, 1));
+    }
+
+    @Test
+    void whenConcurrentAdjustmentsArriveTogetherThenTheyShareDatabaseUpdatesAndKeepTheirOwnOutcome() throws Exception {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().max(20).quantity(0).build().toBierDTO();
+        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
+        int callers = 32;
+
+        when(bierRepository.findAllByIdInForUpdate(Collections.singleton(expectedBierDTO.getId()))).thenReturn(Collections.singletonList(expectedBier));
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            tasks.add(() -> {
+                start.await();
+                try {
+                    stockEngine.adjust(expectedBierDTO.getId(), 1);
+                    return true;
+                } catch (BierStockExceededException e) {
+                    return false;
+                }
+            });
+        }
+        List<Future<Boolean>> results = new ArrayList<>();
+        tasks.forEach(task -> results.add(executor.submit(task)));
+        start.countDown();
+        int applied = 0;
+        for (Future<Boolean> result : results) {
+            applied += result.get() ? 1 : 0;
+        }
+        executor.shutdown();
+
+        DistributionSummary batchSizes = meterRegistry.get("biers.stock.coalescing.batch.size").summary();
+        assertThat(applied, is(equalTo(20)));
+        assertThat(expectedBier.getQuantity(), is(equalTo(20)));
+        assertThat(batchSizes.totalAmount(), is(equalTo((double) callers)));
+        assertThat(batchSizes.count(), is(lessThan((long) callers)));
+        assertThat(meterRegistry.get("biers.stock.coalescing.ratio").gauge().value(), is(greaterThan(1.0)));
+    }
+}
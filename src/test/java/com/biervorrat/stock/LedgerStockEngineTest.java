@@ -0,0 +1,271 @@
+package com.biervorrat.stock;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.changes.ChangeSequencer;
+import com.biervorrat.config.BiervorratProperties;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.StockAdjustmentDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.entity.Bier;
+import com.biervorrat.enums.StockAdjustmentMode;
+import com.biervorrat.event.BierChangeEvent;
+import com.biervorrat.exception.BierNotFoundException;
+import com.biervorrat.exception.BierStockExceededException;
+import com.biervorrat.exception.BierVersionMismatchException;
+import com.biervorrat.mapper.BierMapper;
+import com.biervorrat.repository.BierRepository;
+import com.biervorrat.repository.BierTombstoneRepository;
+import com.biervorrat.rollup.BierStockRollup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LedgerStockEngineTest {
+
+    private static final long INVALID_BEER_ID = 2L;
+    private final BierMapper bierMapper = BierMapper.INSTANCE;
+    @Mock
+    private BierRepository bierRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ChangeSequencer changeSequencer;
+    @Mock
+    private BierTombstoneRepository bierTombstoneRepository;
+    private LedgerStockEngine stockEngine;
+
+    @BeforeEach
+    void setUp() {
+        stockEngine = new LedgerStockEngine(bierRepository, new TransactionTemplate(transactionManager), eventPublisher, changeSequencer, new BiervorratProperties());
+    }
+
+    @Test
+    void whenDeltaIsWithinBoundsThenTheLedgerIsUpdatedWithoutWritingToTheDatabase() throws BierNotFoundException, BierStockExceededException {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+
+        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(bierMapper.toModel(expectedBierDTO)));
+
+        BierDTO adjustedBierDTO = stockEngine.adjust(expectedBierDTO.getId(), 15);
+
+        assertThat(adjustedBierDTO.getQuantity(), is(equalTo(expectedBierDTO.getQuantity() + 15)));
+        assertThat(stockEngine.currentState(expectedBierDTO).getQuantity(), is(equalTo(expectedBierDTO.getQuantity() + 15)));
+        verify(bierRepository, never()).findAllById(anyCollection());
+    }
+
+    @Test
+    void whenDeltaExceedsMaxThenThrowExceptionAndKeepTheQuantity() {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+
+        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(bierMapper.toModel(expectedBierDTO)));
+
+        assertThrows(BierStockExceededException.class, () -> stockEngine.adjust(expectedBierDTO.getId(), 80));
+        assertThat(stockEngine.currentState(expectedBierDTO).getQuantity(), is(equalTo(expectedBierDTO.getQuantity())));
+    }
+
+    @Test
+    void whenBierIsNotRegisteredThenThrowException() {
+        when(bierRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+
+        assertThrows(BierNotFoundException.class, () -> stockEngine.adjust(INVALID_BEER_ID, 1));
+    }
+
+    @Test
+    void whenExpectedVersionIsCurrentThenTheLedgerTakesANewVersion() throws Exception {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
+        expectedBier.setChangeSeq(5L);
+
+        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(expectedBier));
+
+        VersionedBierDTO adjustedBier = stockEngine.adjustIfCurrent(expectedBierDTO.getId(), 10, 5L);
+
+        assertThat(adjustedBier.getVersion(), is(equalTo(6L)));
+        assertThat(adjustedBier.getBier().getQuantity(), is(equalTo(expectedBierDTO.getQuantity() + 10)));
+        assertThat(stockEngine.currentState(new VersionedBierDTO(expectedBierDTO, 5L)).getVersion(), is(equalTo(6L)));
+        assertThrows(BierVersionMismatchException.class, () -> stockEngine.adjustIfCurrent(expectedBierDTO.getId(), 10, 5L));
+        assertThat(stockEngine.currentState(expectedBierDTO).getQuantity(), is(equalTo(expectedBierDTO.getQuantity() + 10)));
+        verify(changeSequencer, times(1)).recordApplied();
+        verify(changeSequencer, never()).next();
+    }
+
+    @Test
+    void whenADeletedBierIsCreatedAgainThenItsVersionsStartAboveTheDeletedOnes() throws Exception {
+        BierDTO deletedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        Bier deletedBier = bierMapper.toModel(deletedBierDTO);
+        deletedBier.setChangeSeq(5L);
+        BierDTO recreatedBierDTO = BierDTOBuilder.builder().id(2L).build().toBierDTO();
+        Bier recreatedBier = bierMapper.toModel(recreatedBierDTO);
+        recreatedBier.setChangeSeq(6L);
+
+        when(bierRepository.findById(deletedBierDTO.getId())).thenReturn(Optional.of(deletedBier));
+        when(bierRepository.findById(recreatedBierDTO.getId())).thenReturn(Optional.of(recreatedBier));
+
+        for (int i = 0; i < 3; i++) {
+            stockEngine.adjust(deletedBierDTO.getId(), 1);
+        }
+        stockEngine.onBierChange(BierChangeEvent.deleted(deletedBierDTO, 9L));
+        long recreatedVersion = stockEngine.currentState(new VersionedBierDTO(recreatedBierDTO, 6L)).getVersion();
+        VersionedBierDTO adjustedBier = stockEngine.adjustIfCurrent(recreatedBierDTO.getId(), 1, recreatedVersion);
+
+        assertThat(recreatedVersion, is(greaterThan(8L)));
+        assertThat(adjustedBier.getVersion(), is(equalTo(recreatedVersion + 1)));
+    }
+
+    @Test
+    void whenLedgerStartsThenLoadedBiersCountTheirVersionsFromTheBootEpoch() throws Exception {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+
+        when(changeSequencer.epoch()).thenReturn(1L << 40);
+        when(bierRepository.findAllDTOs()).thenReturn(Collections.singletonList(expectedBierDTO));
+        when(bierRepository.findAllById(Collections.singletonList(expectedBierDTO.getId()))).thenReturn(Collections.singletonList(bierMapper.toModel(expectedBierDTO)));
+        when(changeSequencer.next()).thenReturn(8L);
+
+        stockEngine.start();
+        try {
+            assertThat(stockEngine.currentState(new VersionedBierDTO(expectedBierDTO, 7L)).getVersion(), is(equalTo(1L << 40)));
+
+            VersionedBierDTO adjustedBier = stockEngine.adjustIfCurrent(expectedBierDTO.getId(), 5, 1L << 40);
+
+            assertThat(adjustedBier.getVersion(), is(equalTo((1L << 40) + 1)));
+            assertThat(adjustedBier.getBier().getQuantity(), is(equalTo(expectedBierDTO.getQuantity() + 5)));
+        } finally {
+            stockEngine.stop();
+        }
+        verify(changeSequencer, times(1)).next();
+    }
+
+    @Test
+    void whenAnAllOrNothingBatchFailsThenNoAdjustmentIsKept() {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        List<StockAdjustmentDTO> adjustments = Arrays.asList(
+                new StockAdjustmentDTO(expectedBierDTO.getId(), 10),
+                new StockAdjustmentDTO(INVALID_BEER_ID, 1));
+
+        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(bierMapper.toModel(expectedBierDTO)));
+        when(bierRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+
+        assertThrows(BierNotFoundException.class, () -> stockEngine.adjustAll(adjustments, StockAdjustmentMode.ALL_OR_NOTHING));
+        assertThat(stockEngine.currentState(expectedBierDTO).getQuantity(), is(equalTo(expectedBierDTO.getQuantity())));
+    }
+
+    @Test
+    void whenManyThreadsIncrementConcurrentlyThenExactlyTheAvailableCapacityIsApplied() throws Exception {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().max(500).quantity(0).build().toBierDTO();
+        int threads = 20;
+        int incrementsPerThread = 50;
+
+        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(bierMapper.toModel(expectedBierDTO)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            tasks.add(() -> {
+                int applied = 0;
+                for (int j = 0; j < incrementsPerThread; j++) {
+                    try {
+                        stockEngine.adjust(expectedBierDTO.getId(), 1);
+                        applied++;
+                    } catch (BierStockExceededException e) {
+                        // capacity exhausted
+                    }
+                }
+                return applied;
+            });
+        }
+        int applied = 0;
+        for (Future<Integer> result : executor.invokeAll(tasks)) {
+            applied += result.get();
+        }
+        executor.shutdown();
+
+        assertThat(applied, is(equalTo(500)));
+        assertThat(stockEngine.currentState(expectedBierDTO).getQuantity(), is(equalTo(500)));
+    }
+
+    @Test
+    void whenTheRollupIsRebuiltDuringAdjustmentsThenEveryAdjustmentIsCountedOnce() throws Exception {
+        BierDTO bierDTO = BierDTOBuilder.builder().max(100_000).quantity(0).build().toBierDTO();
+        BierStockRollup bierStockRollup = new BierStockRollup(bierRepository, bierTombstoneRepository, stockEngine, changeSequencer);
+        int threads = 4;
+        int incrementsPerThread = 2_000;
+
+        when(bierRepository.findById(bierDTO.getId())).thenReturn(Optional.of(bierMapper.toModel(bierDTO)));
+        when(bierRepository.findAllVersionedDTOs()).thenReturn(Collections.singletonList(new VersionedBierDTO(bierDTO, 1L)));
+        doAnswer(invocation -> {
+            bierStockRollup.onBierChange(invocation.getArgument(0));
+            return null;
+        }).when(eventPublisher).publishEvent(any(BierChangeEvent.class));
+        stockEngine.adjust(bierDTO.getId(), 0);
+        bierStockRollup.rebuild();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        AtomicBoolean adjusting = new AtomicBoolean(true);
+        try {
+            Future<?> rebuilds = executor.submit(() -> {
+                while (adjusting.get()) {
+                    bierStockRollup.rebuild();
+                }
+            });
+            List<Future<?>> adjusters = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                adjusters.add(executor.submit((Callable<Void>) () -> {
+                    for (int j = 0; j < incrementsPerThread; j++) {
+                        stockEngine.adjust(bierDTO.getId(), 1);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> adjuster : adjusters) {
+                adjuster.get();
+            }
+            adjusting.set(false);
+            rebuilds.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(bierStockRollup.summary().getByBrand().get(0).getQuantity(), is(equalTo((long) threads * incrementsPerThread)));
+    }
+
+    @Test
+    void whenLedgerIsFlushedThenChangedBiersAreWrittenOnce() throws BierNotFoundException, BierStockExceededException {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        Bier storedBier = bierMapper.toModel(expectedBierDTO);
+
+        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(bierMapper.toModel(expectedBierDTO)));
+        when(bierRepository.findAllById(Collections.singletonList(expectedBierDTO.getId()))).thenReturn(Collections.singletonList(storedBier));
+
+        stockEngine.adjust(expectedBierDTO.getId(), 5);
+        stockEngine.adjust(expectedBierDTO.getId(), -2);
+        stockEngine.flush();
+        stockEngine.flush();
+
+        assertThat(storedBier.getQuantity(), is(equalTo(expectedBierDTO.getQuantity() + 3)));
+        verify(bierRepository, times(1)).findAllById(anyCollection());
+    }
+}
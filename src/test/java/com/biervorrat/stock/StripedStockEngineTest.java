@@ -0,0 +1,174 @@
+package com.biervorrat.stock;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.config.BiervorratProperties;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.StockAdjustmentDTO;
+import com.biervorrat.dto.StockAdjustmentResultDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.enums.StockAdjustmentMode;
+import com.biervorrat.exception.BierStockExceededException;
+import com.biervorrat.exception.BierVersionMismatchException;
+import com.biervorrat.exception.StockStripeSaturatedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StripedStockEngineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Mock
+    private SynchronousStockEngine delegate;
+    private StripedStockEngine stockEngine;
+
+    @BeforeEach
+    void setUp() {
+        BiervorratProperties properties = new BiervorratProperties();
+        properties.getStock().getStriping().setStripes(4);
+        properties.getStock().getStriping().setQueueCapacity(2);
+        stockEngine = new StripedStockEngine(delegate, task -> task, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        stockEngine.stop();
+    }
+
+    @Test
+    void whenTheSameBierIsAdjustedRepeatedlyThenASingleWriterThreadAppliesEveryAdjustment() throws Exception {
+        BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        Set<String> writers = ConcurrentHashMap.newKeySet();
+
+        when(delegate.adjust(bierDTO.getId(), 1)).thenAnswer(invocation -> {
+            writers.add(Thread.currentThread().getName());
+            return bierDTO;
+        });
+
+        for (int i = 0; i < 50; i++) {
+            stockEngine.adjust(bierDTO.getId(), 1);
+        }
+
+        assertThat(writers, hasSize(1));
+        verify(delegate, times(50)).adjust(bierDTO.getId(), 1);
+    }
+
+    @Test
+    void whenAConditionalAdjustmentIsMadeThenTheStripeWriterAppliesIt() throws Exception {
+        BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        Set<String> writers = ConcurrentHashMap.newKeySet();
+
+        when(delegate.adjustIfCurrent(bierDTO.getId(), 1, 3L)).thenAnswer(invocation -> {
+            writers.add(Thread.currentThread().getName());
+            return new VersionedBierDTO(bierDTO, 4L);
+        });
+
+        VersionedBierDTO versionedBier = stockEngine.adjustIfCurrent(bierDTO.getId(), 1, 3L);
+
+        assertThat(versionedBier.getVersion(), is(equalTo(4L)));
+        assertThat(writers, contains(startsWith("stock-stripe-")));
+    }
+
+    @Test
+    void whenTheConditionalAdjustmentIsStaleThenTheVersionMismatchIsRethrown() throws Exception {
+        when(delegate.adjustIfCurrent(1L, 1, 3L)).thenThrow(new BierVersionMismatchException(1L, 3L));
+
+        assertThrows(BierVersionMismatchException.class, () -> stockEngine.adjustIfCurrent(1L, 1, 3L));
+    }
+
+    @Test
+    void whenABatchTouchesABusyStripeThenItRunsAfterTheQueuedAdjustments() throws Exception {
+        BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        List<StockAdjustmentDTO> adjustments = Collections.singletonList(new StockAdjustmentDTO(bierDTO.getId(), 1));
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(delegate.adjust(bierDTO.getId(), 1)).thenAnswer(invocation -> {
+            writerBusy.countDown();
+            release.await();
+            return bierDTO;
+        });
+
+        CompletableFuture<BierDTO> pending = stockEngine.adjustAsync(bierDTO.getId(), 1);
+        writerBusy.await(5, TimeUnit.SECONDS);
+        CompletableFuture<List<StockAdjustmentResultDTO>> batch = CompletableFuture.supplyAsync(() -> {
+            try {
+                return stockEngine.adjustAll(adjustments, StockAdjustmentMode.BEST_EFFORT);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+
+        verify(delegate, after(200).never()).adjustAll(adjustments, StockAdjustmentMode.BEST_EFFORT);
+        release.countDown();
+        pending.get(5, TimeUnit.SECONDS);
+        batch.get(5, TimeUnit.SECONDS);
+        verify(delegate, times(1)).adjustAll(adjustments, StockAdjustmentMode.BEST_EFFORT);
+    }
+
+    @Test
+    void whenTheWriterRejectsTheAdjustmentThenTheFutureCompletesExceptionally() throws Exception {
+        when(delegate.adjust(1L, 80)).thenThrow(new BierStockExceededException(1L, 80));
+
+        CompletableFuture<BierDTO> result = stockEngine.adjustAsync(1L, 80);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertThat(exception.getCause(), is(instanceOf(BierStockExceededException.class)));
+    }
+
+    @Test
+    void whenAStripeQueueIsFullThenAsynchronousAdjustmentsAreRejected() throws Exception {
+        BierDTO bierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(delegate.adjust(bierDTO.getId(), 1)).thenAnswer(invocation -> {
+            writerBusy.countDown();
+            release.await();
+            return bierDTO;
+        });
+
+        List<CompletableFuture<BierDTO>> results = new ArrayList<>();
+        results.add(stockEngine.adjustAsync(bierDTO.getId(), 1));
+        writerBusy.await(5, TimeUnit.SECONDS);
+        results.add(stockEngine.adjustAsync(bierDTO.getId(), 1));
+        results.add(stockEngine.adjustAsync(bierDTO.getId(), 1));
+        CompletableFuture<BierDTO> rejected = stockEngine.adjustAsync(bierDTO.getId(), 1);
+
+        double queueDepth = meterRegistry.get("biers.stock.stripe.queue.depth").gauges()
+                .stream()
+                .mapToDouble(gauge -> gauge.value())
+                .sum();
+        assertThat(queueDepth, is(equalTo(2.0)));
+        assertThat(rejected.isCompletedExceptionally(), is(true));
+        ExecutionException exception = assertThrows(ExecutionException.class, rejected::get);
+        assertThat(exception.getCause(), is(instanceOf(StockStripeSaturatedException.class)));
+        assertThat(meterRegistry.get("biers.stock.stripe.rejected").counter().count(), is(equalTo(1.0)));
+
+        release.countDown();
+        for (CompletableFuture<BierDTO> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS), is(equalTo(bierDTO)));
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.biervorrat.stock;
+
+import com.biervorrat.builder.BierDTOBuilder;
+import com.biervorrat.changes.ChangeSequencer;
+import com.biervorrat.dto.BierDTO;
+import com.biervorrat.dto.StockAdjustmentDTO;
+import com.biervorrat.dto.VersionedBierDTO;
+import com.biervorrat.dto.StockAdjustmentResultDTO;
+import com.biervorrat.entity.Bier;
+import com.biervorrat.enums.StockAdjustmentMode;
+import com.biervorrat.enums.StockAdjustmentStatus;
+import com.biervorrat.exception.BierNotFoundException;
+import com.biervorrat.exception.BierStockExceededException;
+import com.biervorrat.exception.BierVersionMismatchException;
+import com.biervorrat.mapper.BierMapper;
+import com.biervorrat.repository.BierRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SynchronousStockEngineTest {
+
+    private static final long INVALID_BEER_ID = 1L;
+    private final BierMapper bierMapper = BierMapper.INSTANCE;
+    @Mock
+    private BierRepository bierRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ChangeSequencer changeSequencer;
+    @InjectMocks
+    private SynchronousStockEngine stockEngine;
+
+    @Test
+    void whenPositiveDeltaIsCalledThenIncrementBierStock() throws BierNotFoundException, BierStockExceededException {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
+
+        int quantityToIncrement = 10;
+        int expectedQuantityAfterIncrement = expectedBierDTO.getQuantity() + quantityToIncrement;
+        expectedBier.setQuantity(expectedQuantityAfterIncrement);
+
+        when(bierRepository.adjustQuantity(eq(expectedBierDTO.getId()), eq(quantityToIncrement), anyLong())).thenReturn(1);
+        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(expectedBier));
+
+        BierDTO incrementedBierDTO = stockEngine.adjust(expectedBierDTO.getId(), quantityToIncrement);
+
+        assertThat(incrementedBierDTO.getQuantity(), is(equalTo(expectedQuantityAfterIncrement)));
+        assertThat(expectedBierDTO.getMax(), is(greaterThan(expectedQuantityAfterIncrement)));
+        verify(bierRepository, never()).save(expectedBier);
+    }
+
+    @Test
+    void whenPositiveDeltaIsGreatherThanMaxThenThrowException() {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
+
+        int quantityToIncrement = 80;
+        when(bierRepository.adjustQuantity(eq(expectedBierDTO.getId()), eq(quantityToIncrement), anyLong())).thenReturn(0);
+        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(expectedBier));
+
+        assertThrows(BierStockExceededException.class, () -> stockEngine.adjust(expectedBierDTO.getId(), quantityToIncrement));
+    }
+
+    @Test
+    void whenPositiveDeltaIsCalledWithInvalidIdThenThrowException() {
+        int quantityToIncrement = 10;
+
+        when(bierRepository.adjustQuantity(eq(INVALID_BEER_ID), eq(quantityToIncrement), anyLong())).thenReturn(0);
+        when(bierRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+
+        assertThrows(BierNotFoundException.class, () -> stockEngine.adjust(INVALID_BEER_ID, quantityToIncrement));
+    }
+
+    @Test
+    void whenNegativeDeltaIsCalledThenDecrementBierStock() throws BierNotFoundException, BierStockExceededException {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
+
+        int quantityToDecrement = 5;
+        int expectedQuantityAfterDecrement = expectedBierDTO.getQuantity() - quantityToDecrement;
+        expectedBier.setQuantity(expectedQuantityAfterDecrement);
+
+        when(bierRepository.adjustQuantity(eq(expectedBierDTO.getId()), eq(-quantityToDecrement), anyLong())).thenReturn(1);
+        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(expectedBier));
+
+        BierDTO incrementedBierDTO = stockEngine.adjust(expectedBierDTO.getId(), -quantityToDecrement);
+
+        assertThat(incrementedBierDTO.getQuantity(), is(equalTo(expectedQuantityAfterDecrement)));
+        assertThat(expectedQuantityAfterDecrement, is(greaterThan(0)));
+    }
+
+    @Test
+    void whenNegativeDeltaIsCalledToEmptyStockThenEmptyBierStock() throws BierNotFoundException, BierStockExceededException {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
+
+        int quantityToDecrement = 10;
+        int expectedQuantityAfterDecrement = expectedBierDTO.getQuantity() - quantityToDecrement;
+        expectedBier.setQuantity(expectedQuantityAfterDecrement);
+
+        when(bierRepository.adjustQuantity(eq(expectedBierDTO.getId()), eq(-quantityToDecrement), anyLong())).thenReturn(1);
+        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(expectedBier));
+
+        BierDTO incrementedBierDTO = stockEngine.adjust(expectedBierDTO.getId(), -quantityToDecrement);
+
+        assertThat(expectedQuantityAfterDecrement, is(equalTo(0)));
+        assertThat(expectedQuantityAfterDecrement, is(equalTo(incrementedBierDTO.getQuantity())));
+    }
+
+    @Test
+    void whenNegativeDeltaIsLowerThanZeroThenThrowException() {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
+
+        int quantityToDecrement = 80;
+        when(bierRepository.adjustQuantity(eq(expectedBierDTO.getId()), eq(-quantityToDecrement), anyLong())).thenReturn(0);
+        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(expectedBier));
+
+        assertThrows(BierStockExceededException.class, () -> stockEngine.adjust(expectedBierDTO.getId(), -quantityToDecrement));
+    }
+
+    @Test
+    void whenNegativeDeltaIsCalledWithInvalidIdThenThrowException() {
+        int quantityToDecrement = 10;
+
+        when(bierRepository.adjustQuantity(eq(INVALID_BEER_ID), eq(-quantityToDecrement), anyLong())).thenReturn(0);
+        when(bierRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+
+        assertThrows(BierNotFoundException.class, () -> stockEngine.adjust(INVALID_BEER_ID, -quantityToDecrement));
+    }
+
+    @Test
+    void whenExpectedVersionIsCurrentThenAdjustmentIsAppliedWithTheNewVersion() throws Exception {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
+
+        when(changeSequencer.next()).thenReturn(8L);
+        when(bierRepository.adjustQuantityIfCurrent(expectedBierDTO.getId(), 10, 7L, 8L)).thenReturn(1);
+        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(expectedBier));
+
+        VersionedBierDTO adjustedBier = stockEngine.adjustIfCurrent(expectedBierDTO.getId(), 10, 7L);
+
+        assertThat(adjustedBier.getVersion(), is(equalTo(8L)));
+        assertThat(adjustedBier.getBier(), is(equalTo(expectedBierDTO)));
+    }
+
+    @Test
+    void whenExpectedVersionIsStaleThenThrowVersionMismatch() {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
+        expectedBier.setChangeSeq(9L);
+
+        when(bierRepository.adjustQuantityIfCurrent(eq(expectedBierDTO.getId()), eq(10), eq(7L), anyLong())).thenReturn(0);
+        when(bierRepository.findById(expectedBierDTO.getId())).thenReturn(Optional.of(expectedBier));
+
+        assertThrows(BierVersionMismatchException.class, () -> stockEngine.adjustIfCurrent(expectedBierDTO.getId(), 10, 7L));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void whenStockAdjustmentsAreValidThenAllAreAppliedWithASingleLookup() throws BierNotFoundException, BierStockExceededException {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
+        List<StockAdjustmentDTO> adjustments = Arrays.asList(
+                new StockAdjustmentDTO(expectedBierDTO.getId(), 10),
+                new StockAdjustmentDTO(expectedBierDTO.getId(), -5));
+
+        when(bierRepository.findAllByIdInForUpdate(Collections.singleton(expectedBierDTO.getId())))
+                .thenReturn(Collections.singletonList(expectedBier));
+
+        List<StockAdjustmentResultDTO> results = stockEngine.adjustAll(adjustments, StockAdjustmentMode.ALL_OR_NOTHING);
+
+        assertThat(results.get(0).getStatus(), is(equalTo(StockAdjustmentStatus.APPLIED)));
+        assertThat(results.get(0).getQuantity(), is(equalTo(expectedBierDTO.getQuantity() + 10)));
+        assertThat(results.get(1).getQuantity(), is(equalTo(expectedBierDTO.getQuantity() + 5)));
+        assertThat(expectedBier.getQuantity(), is(equalTo(expectedBierDTO.getQuantity() + 5)));
+        verify(bierRepository, never()).findById(expectedBierDTO.getId());
+    }
+
+    @Test
+    void whenAnAllOrNothingStockAdjustmentExceedsMaxThenThrowException() {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().build().toBierDTO();
+        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
+        List<StockAdjustmentDTO> adjustments = Arrays.asList(
+                new StockAdjustmentDTO(expectedBierDTO.getId(), 10),
+                new StockAdjustmentDTO(expectedBierDTO.getId(), 80));
+
+        when(bierRepository.findAllByIdInForUpdate(Collections.singleton(expectedBierDTO.getId())))
+                .thenReturn(Collections.singletonList(expectedBier));
+
+        assertThrows(BierStockExceededException.class, () -> stockEngine.adjustAll(adjustments, StockAdjustmentMode.ALL_OR_NOTHING));
+    }
+
+    @Test
+    void whenAnAllOrNothingStockAdjustmentHasInvalidIdThenThrowException() {
+        List<StockAdjustmentDTO> adjustments = Collections.singletonList(new StockAdjustmentDTO(INVALID_BEER_ID, 10));
+
+        when(bierRepository.findAllByIdInForUpdate(Collections.singleton(INVALID_BEER_ID))).thenReturn(Collections.emptyList());
+
+        assertThrows(BierNotFoundException.class, () -> stockEngine.adjustAll(adjustments, StockAdjustmentMode.ALL_OR_NOTHING));
+    }
+
+    @Test
+    void whenBestEffortStockAdjustmentsPartiallyFailThenReturnAResultPerItem() throws BierNotFoundException, BierStockExceededException {
+        BierDTO expectedBierDTO = BierDTOBuilder.builder().id(2L).build().toBierDTO();
+        Bier expectedBier = bierMapper.toModel(expectedBierDTO);
+        List<StockAdjustmentDTO> adjustments = Arrays.asList(
+                new StockAdjustmentDTO(expectedBierDTO.getId(), 5),
+                new StockAdjustmentDTO(expectedBierDTO.getId(), -80),
+                new StockAdjustmentDTO(INVALID_BEER_ID, 1));
+
+        when(bierRepository.findAllByIdInForUpdate(new HashSet<>(Arrays.asList(expectedBierDTO.getId(), INVALID_BEER_ID))))
+                .thenReturn(Collections.singletonList(expectedBier));
+
+        List<StockAdjustmentResultDTO> results = stockEngine.adjustAll(adjustments, StockAdjustmentMode.BEST_EFFORT);
+
+        assertThat(results.get(0).getStatus(), is(equalTo(StockAdjustmentStatus.APPLIED)));
+        assertThat(results.get(1).getStatus(), is(equalTo(StockAdjustmentStatus.STOCK_EXCEEDED)));
+        assertThat(results.get(2).getStatus(), is(equalTo(StockAdjustmentStatus.NOT_FOUND)));
+        assertThat(results.get(2).getQuantity(), is(nullValue()));
+        assertThat(expectedBier.getQuantity(), is(equalTo(expectedBierDTO.getQuantity() + 5)));
+    }
+}
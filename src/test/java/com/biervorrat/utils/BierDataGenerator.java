@@ -0,0 +1,133 @@
+package com.biervorrat.utils;
+
+import com.biervorrat.enums.BierType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+
+/**
+ * Inserts synthetic biers through JDBC. Rows are appended by index, so a table can be grown step by
+ * step. By default brands, types and stock levels are spread evenly; {@link #skewed} gives a
+ * production-like skew instead, where brand popularity follows a Zipf distribution over
+ * {@value #SKEWED_BRANDS} brands and lagers dominate the type mix, and the same seed always yields
+ * the same rows.
+ */
+public class BierDataGenerator {
+
+    private static final String INSERT_SQL = "INSERT INTO bier (id, name, brand, max, quantity, type, fill_ratio, change_seq) " +
+            "VALUES (NEXT VALUE FOR bier_sequence, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String[] BRANDS = {"Ambev", "Heineken", "Colorado", "Paulaner", "Diageo"};
+    private static final int SKEWED_BRANDS = 200;
+    private static final double SKEWED_BRAND_EXPONENT = 1.1;
+    private static final double[] SKEWED_BRAND_CUMULATIVE = cumulativeZipf(SKEWED_BRANDS, SKEWED_BRAND_EXPONENT);
+    private static final double[] SKEWED_TYPE_CUMULATIVE = cumulative(new double[]{0.45, 0.05, 0.08, 0.07, 0.12, 0.15, 0.08});
+    private static final int[] SKEWED_CAPACITIES = {24, 50, 100, 250, 500};
+    private static final BierType[] TYPES = BierType.values();
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LongFunction<Object[]> rowOf;
+
+    public BierDataGenerator(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, BierDataGenerator::evenRow);
+    }
+
+    private BierDataGenerator(JdbcTemplate jdbcTemplate, LongFunction<Object[]> rowOf) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rowOf = rowOf;
+    }
+
+    public static BierDataGenerator skewed(JdbcTemplate jdbcTemplate, long seed) {
+        return new BierDataGenerator(jdbcTemplate, index -> skewedRow(seed, index));
+    }
+
+    public static String nameOf(long index) {
+        return String.format("Bier-%08d", index);
+    }
+
+    public void generate(int rows) {
+        generate(0, rows);
+    }
+
+    public void generate(long fromIndex, long toIndex) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (long index = fromIndex; index < toIndex; index++) {
+            batch.add(rowOf.apply(index));
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        }
+    }
+
+    private static Object[] evenRow(long index) {
+        int quantity = (int) (index % 101);
+        return new Object[]{
+                nameOf(index),
+                BRANDS[(int) (index % BRANDS.length)],
+                100,
+                quantity,
+                TYPES[(int) (index % TYPES.length)].name(),
+                quantity / 100.0,
+                index + 1
+        };
+    }
+
+    private static Object[] skewedRow(long seed, long index) {
+        SplittableRandom random = new SplittableRandom(seed ^ index * 0x9E3779B97F4A7C15L);
+        int max = SKEWED_CAPACITIES[random.nextInt(SKEWED_CAPACITIES.length)];
+        int quantity = random.nextInt(max + 1);
+        return new Object[]{
+                nameOf(index),
+                String.format("Brand-%03d", pick(SKEWED_BRAND_CUMULATIVE, random.nextDouble())),
+                max,
+                quantity,
+                TYPES[pick(SKEWED_TYPE_CUMULATIVE, random.nextDouble())].name(),
+                (double) quantity / max,
+                index + 1
+        };
+    }
+
+    private static int pick(double[] cumulative, double sample) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] < sample) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static double[] cumulativeZipf(int size, double exponent) {
+        double[] weights = new double[size];
+        for (int rank = 0; rank < size; rank++) {
+            weights[rank] = 1.0 / Math.pow(rank + 1, exponent);
+        }
+        return cumulative(weights);
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double[] cumulative = new double[weights.length];
+        double running = 0;
+        for (int i = 0; i < weights.length; i++) {
+            running += weights[i] / total;
+            cumulative[i] = running;
+        }
+        cumulative[weights.length - 1] = 1.0;
+        return cumulative;
+    }
+}
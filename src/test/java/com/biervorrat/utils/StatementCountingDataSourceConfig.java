@@ -0,0 +1,55 @@
+package com.biervorrat.utils;
+
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.listener.SingleQueryCountHolder;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's DataSource in a datasource-proxy that counts every statement by kind,
+ * across all threads, so tests can pin the number of round trips an endpoint makes.
+ */
+@TestConfiguration
+public class StatementCountingDataSourceConfig {
+
+    private static final SingleQueryCountHolder QUERY_COUNTS = new SingleQueryCountHolder();
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create((DataSource) bean)
+                            .name(beanName)
+                            .countQuery(QUERY_COUNTS)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    public static void reset() {
+        QUERY_COUNTS.clear();
+    }
+
+    public static StatementCounts counts() {
+        long selects = 0;
+        long inserts = 0;
+        long updates = 0;
+        long deletes = 0;
+        for (QueryCount queryCount : QUERY_COUNTS.getQueryCountMap().values()) {
+            selects += queryCount.getSelect();
+            inserts += queryCount.getInsert();
+            updates += queryCount.getUpdate();
+            deletes += queryCount.getDelete();
+        }
+        return new StatementCounts(selects, inserts, updates, deletes);
+    }
+}
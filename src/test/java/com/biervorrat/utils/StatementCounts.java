@@ -0,0 +1,19 @@
+package com.biervorrat.utils;
+
+import lombok.Value;
+
+@Value
+public class StatementCounts {
+
+    long selects;
+
+    long inserts;
+
+    long updates;
+
+    long deletes;
+
+    public static StatementCounts of(long selects, long inserts, long updates, long deletes) {
+        return new StatementCounts(selects, inserts, updates, deletes);
+    }
+}